@@ -20,18 +20,23 @@
 package net.minecraftforge.fml.loading.moddiscovery;
 
 import net.minecraftforge.forgespi.language.ModFileScanData;
+import net.minecraftforge.fml.loading.FMLConfig;
 import net.minecraftforge.fml.loading.LoadingModList;
 import net.minecraftforge.forgespi.locating.IModFile;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static net.minecraftforge.fml.loading.LogMarkers.SCAN;
 
@@ -42,29 +47,35 @@ public class BackgroundScanHandler
     private final List<ModFile> pendingFiles;
     private final List<ModFile> scannedFiles;
     private final List<ModFile> allFiles;
+    private final Map<ModFile, Integer> submissionOrder;
     private final Map<IModFile.Type, List<ModFile>> modFiles;
     private LoadingModList loadingModList;
 
     public BackgroundScanHandler(final Map<IModFile.Type, List<ModFile>> modFiles) {
         this.modFiles = modFiles;
-        modContentScanner = Executors.newSingleThreadExecutor(r -> {
+        // Each file is scanned by a single thread into its own ModFileScanData, so files can be scanned side by side
+        final AtomicInteger threadCount = new AtomicInteger();
+        modContentScanner = Executors.newFixedThreadPool(Math.max(1, FMLConfig.loadingThreadCount()), r -> {
             final Thread thread = Executors.defaultThreadFactory().newThread(r);
+            thread.setName("modscanner-" + threadCount.getAndIncrement());
             thread.setDaemon(true);
             return thread;
         });
         scannedFiles = new ArrayList<>();
         pendingFiles = new ArrayList<>();
         allFiles = new ArrayList<>();
+        submissionOrder = new HashMap<>();
     }
 
     public Map<IModFile.Type, List<ModFile>> getModFiles() {
         return modFiles;
     }
 
-    public void submitForScanning(final ModFile file) {
+    public synchronized void submitForScanning(final ModFile file) {
         if (modContentScanner.isShutdown()) {
             throw new IllegalStateException("Scanner has shutdown");
         }
+        submissionOrder.put(file, allFiles.size());
         allFiles.add(file);
         pendingFiles.add(file);
         final CompletableFuture<ModFileScanData> future = CompletableFuture.supplyAsync(file::compileContent, modContentScanner)
@@ -73,12 +84,14 @@ public class BackgroundScanHandler
         file.setFutureScanResult(future);
     }
 
-    private void addCompletedFile(final ModFile file, final ModFileScanData modFileScanData, final Throwable throwable) {
+    private synchronized void addCompletedFile(final ModFile file, final ModFileScanData modFileScanData, final Throwable throwable) {
         if (throwable != null) {
             LOGGER.error(SCAN,"An error occurred scanning file {}", file, throwable);
         }
         pendingFiles.remove(file);
-        scannedFiles.add(file);
+        // keep scanned files in submission order, whichever thread finishes first
+        final int index = Collections.binarySearch(scannedFiles, file, Comparator.comparingInt(submissionOrder::get));
+        scannedFiles.add(index < 0 ? -index - 1 : index, file);
     }
 
     public void setLoadingModList(LoadingModList loadingModList)
@@ -100,6 +113,6 @@ public class BackgroundScanHandler
             } catch (InterruptedException e) {
                 Thread.interrupted();
             }
-        } while (!modContentScanner.isShutdown());
+        } while (!modContentScanner.isTerminated());
     }
 }
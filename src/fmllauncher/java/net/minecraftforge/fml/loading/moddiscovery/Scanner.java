@@ -57,7 +57,8 @@ public class Scanner {
         try (InputStream in = Files.newInputStream(path)){
             ModClassVisitor mcv = new ModClassVisitor();
             ClassReader cr = new ClassReader(in);
-            cr.accept(mcv, 0);
+            // Only class, field and method annotations are collected, so method bodies and debug info are never needed
+            cr.accept(mcv, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
             mcv.buildData(result.getClasses(), result.getAnnotations());
         } catch (IOException | IllegalArgumentException e) {
             // mark path bad
@@ -20,20 +20,32 @@
 package net.minecraftforge.client.model;
 
 import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import javax.annotation.Nullable;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterators;
 
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import net.minecraft.client.Minecraft;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.SectionPos;
 import net.minecraft.world.World;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.client.model.data.IModelData;
@@ -42,14 +54,71 @@ import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod.EventBusSubscriber;
 import net.minecraftforge.fml.common.Mod.EventBusSubscriber.Bus;
 
+/**
+ * Caches {@link IModelData} of tile entities per 16x16x16 chunk section, keyed by packed section and block positions.
+ *
+ * <p>Readers, such as the chunk builder threads, never lock or box: sections are spread over a fixed number of copy on write
+ * shards keyed by the packed section position, so adding or removing a section only copies its shard, and each section's data
+ * is an immutable map which is replaced as a whole when it changes. Refresh requests are queued per section and only that section's tile
+ * entities are queried again, the next time it is read.
+ */
 @EventBusSubscriber(modid = "forge", bus = Bus.FORGE, value = Dist.CLIENT)
 public class ModelDataManager
 {
+    private static final int SECTIONS_PER_CHUNK = 16;
+    private static final int SHARDS = 64;
+
     private static WeakReference<World> currentWorld = new WeakReference<>(null);
-    
-    private static final Map<ChunkPos, Set<BlockPos>> needModelDataRefresh = new ConcurrentHashMap<>();
-    
-    private static final Map<ChunkPos, Map<BlockPos, IModelData>> modelDataCache = new ConcurrentHashMap<>();
+
+    // Copy on write, guarded by the class lock for writers
+    private static final AtomicReferenceArray<Long2ObjectMap<Section>> sections = new AtomicReferenceArray<>(SHARDS);
+    static
+    {
+        clearSections();
+    }
+
+    private static final class Section
+    {
+        private final LongSet needModelDataRefresh = new LongOpenHashSet(); // Guarded by this
+        private volatile boolean dirty;
+        private volatile Long2ObjectMap<IModelData> modelData = Long2ObjectMaps.emptyMap();
+
+        synchronized void requestRefresh(BlockPos pos)
+        {
+            needModelDataRefresh.add(pos.asLong());
+            dirty = true;
+        }
+
+        Long2ObjectMap<IModelData> get(World world)
+        {
+            if (dirty)
+                refresh(world);
+            return modelData;
+        }
+
+        private synchronized void refresh(World world)
+        {
+            if (!dirty)
+                return;
+            Long2ObjectOpenHashMap<IModelData> data = new Long2ObjectOpenHashMap<>(modelData);
+            for (LongIterator itr = needModelDataRefresh.iterator(); itr.hasNext(); )
+            {
+                long packed = itr.nextLong();
+                TileEntity toUpdate = world.getBlockEntity(BlockPos.of(packed));
+                if (toUpdate != null && !toUpdate.isRemoved())
+                {
+                    data.put(packed, toUpdate.getModelData());
+                }
+                else
+                {
+                    data.remove(packed);
+                }
+            }
+            needModelDataRefresh.clear();
+            modelData = data.isEmpty() ? Long2ObjectMaps.emptyMap() : Long2ObjectMaps.unmodifiable(data);
+            dirty = false;
+        }
+    }
 
     private static void cleanCaches(World world)
     {
@@ -57,64 +126,168 @@ public class ModelDataManager
         Preconditions.checkArgument(world == Minecraft.getInstance().level, "Cannot use model data for a world other than the current client world");
         if (world != currentWorld.get())
         {
-            currentWorld = new WeakReference<>(world);
-            needModelDataRefresh.clear();
-            modelDataCache.clear();
+            synchronized (ModelDataManager.class)
+            {
+                if (world != currentWorld.get())
+                {
+                    currentWorld = new WeakReference<>(world);
+                    clearSections();
+                }
+            }
         }
     }
-    
+
+    private static void clearSections()
+    {
+        for (int i = 0; i < SHARDS; i++)
+            sections.set(i, Long2ObjectMaps.emptyMap());
+    }
+
+    private static int shard(long key)
+    {
+        return (int)HashCommon.mix(key) & (SHARDS - 1);
+    }
+
+    @Nullable
+    private static Section getSection(long key)
+    {
+        return sections.get(shard(key)).get(key);
+    }
+
+    private static long sectionKey(BlockPos pos)
+    {
+        return SectionPos.asLong(SectionPos.blockToSectionCoord(pos.getX()), SectionPos.blockToSectionCoord(pos.getY()), SectionPos.blockToSectionCoord(pos.getZ()));
+    }
+
     public static void requestModelDataRefresh(TileEntity te)
     {
         Preconditions.checkNotNull(te, "Tile entity must not be null");
         World world = te.getLevel();
 
         cleanCaches(world);
-        needModelDataRefresh.computeIfAbsent(new ChunkPos(te.getBlockPos()), $ -> Collections.synchronizedSet(new HashSet<>()))
-                            .add(te.getBlockPos());
-    }
-    
-    private static void refreshModelData(World world, ChunkPos chunk)
-    {        
-        cleanCaches(world);
-        Set<BlockPos> needUpdate = needModelDataRefresh.remove(chunk);
-
-        if (needUpdate != null)
+        long key = sectionKey(te.getBlockPos());
+        Section section = getSection(key);
+        if (section == null)
         {
-            Map<BlockPos, IModelData> data = modelDataCache.computeIfAbsent(chunk, $ -> new ConcurrentHashMap<>());
-            for (BlockPos pos : needUpdate)
+            synchronized (ModelDataManager.class)
             {
-                TileEntity toUpdate = world.getBlockEntity(pos);
-                if (toUpdate != null && !toUpdate.isRemoved())
+                int shard = shard(key);
+                section = sections.get(shard).get(key);
+                if (section == null)
                 {
-                    data.put(pos, toUpdate.getModelData());
-                }
-                else
-                {
-                    data.remove(pos);
+                    Long2ObjectOpenHashMap<Section> copy = new Long2ObjectOpenHashMap<>(sections.get(shard));
+                    section = new Section();
+                    copy.put(key, section);
+                    sections.set(shard, copy);
                 }
             }
         }
+        section.requestRefresh(te.getBlockPos());
     }
-    
+
     @SubscribeEvent
     public static void onChunkUnload(ChunkEvent.Unload event)
     {
         if (!event.getChunk().getWorldForge().isClientSide()) return;
-        
+
         ChunkPos chunk = event.getChunk().getPos();
-        needModelDataRefresh.remove(chunk);
-        modelDataCache.remove(chunk);
+        synchronized (ModelDataManager.class)
+        {
+            for (int y = 0; y < SECTIONS_PER_CHUNK; y++)
+            {
+                long key = SectionPos.asLong(chunk.x, y, chunk.z);
+                int shard = shard(key);
+                if (sections.get(shard).containsKey(key))
+                {
+                    Long2ObjectOpenHashMap<Section> copy = new Long2ObjectOpenHashMap<>(sections.get(shard));
+                    copy.remove(key);
+                    sections.set(shard, copy);
+                }
+            }
+        }
     }
-    
+
     public static @Nullable IModelData getModelData(World world, BlockPos pos)
     {
-        return getModelData(world, new ChunkPos(pos)).get(pos);
+        return getSectionModelData(world, pos).get(pos.asLong());
+    }
+
+    /**
+     * Model data of all tile entities in the chunk section containing the given position, keyed by {@link BlockPos#asLong()}.
+     * The returned map is an immutable snapshot, later refreshes replace it rather than modifying it.
+     */
+    public static Long2ObjectMap<IModelData> getSectionModelData(World world, BlockPos pos)
+    {
+        Preconditions.checkArgument(world.isClientSide, "Cannot request model data for server world");
+        cleanCaches(world);
+        Section section = getSection(sectionKey(pos));
+        return section == null ? Long2ObjectMaps.emptyMap() : section.get(world);
     }
-    
+
+    /**
+     * Read only {@link BlockPos} keyed view of the data returned by {@link #getSectionModelData(World, BlockPos)},
+     * for code which still expects a {@code Map<BlockPos, IModelData>}. Lookups go straight to the packed map.
+     */
+    public static Map<BlockPos, IModelData> asBlockPosMap(Long2ObjectMap<IModelData> data)
+    {
+        return new AbstractMap<BlockPos, IModelData>()
+        {
+            @Override
+            public IModelData get(Object key)
+            {
+                return key instanceof BlockPos ? data.get(((BlockPos)key).asLong()) : null;
+            }
+
+            @Override
+            public boolean containsKey(Object key)
+            {
+                return key instanceof BlockPos && data.containsKey(((BlockPos)key).asLong());
+            }
+
+            @Override
+            public int size()
+            {
+                return data.size();
+            }
+
+            @Override
+            public Set<Entry<BlockPos, IModelData>> entrySet()
+            {
+                return new AbstractSet<Entry<BlockPos, IModelData>>()
+                {
+                    @Override
+                    public Iterator<Entry<BlockPos, IModelData>> iterator()
+                    {
+                        return Iterators.transform(data.long2ObjectEntrySet().iterator(),
+                                e -> new SimpleImmutableEntry<>(BlockPos.of(e.getLongKey()), e.getValue()));
+                    }
+
+                    @Override
+                    public int size()
+                    {
+                        return data.size();
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * @deprecated Model data is stored per chunk section, use {@link #getSectionModelData(World, BlockPos)}.
+     * This copies the data of every section in the chunk.
+     */
+    @Deprecated
     public static Map<BlockPos, IModelData> getModelData(World world, ChunkPos pos)
     {
         Preconditions.checkArgument(world.isClientSide, "Cannot request model data for server world");
-        refreshModelData(world, pos);
-        return modelDataCache.getOrDefault(pos, Collections.emptyMap());
+        cleanCaches(world);
+        Map<BlockPos, IModelData> ret = new HashMap<>();
+        for (int y = 0; y < SECTIONS_PER_CHUNK; y++)
+        {
+            Section section = getSection(SectionPos.asLong(pos.x, y, pos.z));
+            if (section != null)
+                section.get(world).forEach((packed, data) -> ret.put(BlockPos.of(packed), data));
+        }
+        return ret.isEmpty() ? Collections.emptyMap() : ret;
     }
 }
@@ -19,7 +19,11 @@
 
 package net.minecraftforge.client.model;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -32,6 +36,7 @@ import net.minecraft.client.renderer.texture.AtlasTexture;
 import net.minecraft.profiler.IProfiler;
 import net.minecraft.resources.IResourceManager;
 import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.common.ForgeConfig;
 import net.minecraftforge.logging.ModelLoaderErrorMessage;
 
 import java.util.function.Function;
@@ -52,6 +57,9 @@ public final class ModelLoader extends ModelBakery
 
     private boolean isLoading = false;
 
+    private boolean parallelBakePending = false;
+    private volatile boolean parallelBaking = false;
+
     private static ModelLoader instance;
 
     @Nullable
@@ -70,6 +78,65 @@ public final class ModelLoader extends ModelBakery
         super(manager, colours, false);
         instance = this;
         processLoading(profiler, maxMipmapLevel);
+        if (ForgeConfig.CLIENT.parallelModelBakingEnabled.get())
+        {
+            // Nested and shared models are looked up in the bake cache from several threads at once.
+            this.bakedCache = Collections.synchronizedMap(new HashMap<>(this.bakedCache));
+            this.parallelBakePending = true;
+        }
+    }
+
+    @Override
+    public IUnbakedModel getModel(ResourceLocation location)
+    {
+        if (!parallelBaking)
+            return super.getModel(location);
+        // Models are normally all loaded by now, but custom geometries may still ask for new ones while baking.
+        synchronized (this)
+        {
+            return super.getModel(location);
+        }
+    }
+
+    @Nullable
+    @Override
+    public IBakedModel getBakedModel(ResourceLocation location, IModelTransform transform, Function<RenderMaterial, TextureAtlasSprite> textureGetter)
+    {
+        if (parallelBakePending)
+        {
+            parallelBakePending = false;
+            bakeTopLevelModels();
+        }
+        return super.getBakedModel(location, transform, textureGetter);
+    }
+
+    /**
+     * Bakes every top level model on the common fork-join pool, the first time vanilla asks for a baked model.
+     * Top level models don't depend on each other's baked results, so the only shared state is the bake cache.
+     * The sequential vanilla pass that follows then only hits the cache, and logs any model that failed here.
+     */
+    private void bakeTopLevelModels()
+    {
+        Function<RenderMaterial, TextureAtlasSprite> textureGetter = getSpriteMap()::getSprite;
+        List<ResourceLocation> locations = new ArrayList<>(this.topLevelModels.keySet());
+        parallelBaking = true;
+        try
+        {
+            locations.parallelStream().forEach(location -> {
+                try
+                {
+                    getBakedModel(location, ModelRotation.X0_Y0, textureGetter);
+                }
+                catch (Exception e)
+                {
+                    // Baked again and reported by the vanilla loop
+                }
+            });
+        }
+        finally
+        {
+            parallelBaking = false;
+        }
     }
 
     private static Set<ResourceLocation> specialModels = new HashSet<>();
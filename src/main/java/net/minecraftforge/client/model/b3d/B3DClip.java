@@ -30,13 +30,25 @@ import net.minecraftforge.common.model.animation.IJoint;
 import net.minecraftforge.common.model.animation.IJointClip;
 import net.minecraftforge.common.model.animation.JointClips;
 
+import javax.annotation.Nullable;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableSet;
 
-// FIXME: is this fast enough?
+import java.util.concurrent.TimeUnit;
+
 public enum B3DClip implements IClip
 {
     INSTANCE;
 
+    // One clip per node, shared by every model instance using the same skeleton
+    private final LoadingCache<Node<?>, NodeClip> clips = CacheBuilder.newBuilder()
+        .weakKeys()
+        .expireAfterAccess(2, TimeUnit.MINUTES)
+        .build(CacheLoader.from(NodeClip::new));
+
     @Override
     public IJointClip apply(final IJoint joint)
     {
@@ -44,7 +56,7 @@ public enum B3DClip implements IClip
         {
             return JointClips.IdentityJointClip.INSTANCE;
         }
-        return new NodeClip(((NodeJoint)joint).getNode());
+        return clips.getUnchecked(((NodeJoint)joint).getNode());
     }
 
     @Override
@@ -55,49 +67,64 @@ public enum B3DClip implements IClip
 
     protected static class NodeClip implements IJointClip
     {
+        private static final int MAX_BAKED_FRAMES = 1024;
+
         private final Node<?> node;
+        private final TransformationMatrix rest;
+        // Local transform of the node at each keyed frame, null where the frame has no key
+        private final TransformationMatrix[] keys;
 
         public NodeClip(Node<?> node)
         {
             this.node = node;
+            this.rest = new TransformationMatrix(node.getPos(), node.getRot(), node.getScale(), null);
+            if(node.getAnimation() == null)
+            {
+                this.keys = new TransformationMatrix[0];
+            }
+            else
+            {
+                this.keys = new TransformationMatrix[Math.min(node.getAnimation().getFrames(), MAX_BAKED_FRAMES) + 1];
+                for(int frame = 0; frame < keys.length; frame++)
+                {
+                    Key key = node.getAnimation().getKeys().get(frame, node);
+                    keys[frame] = key == null ? null : new TransformationMatrix(key.getPos(), key.getRot(), key.getScale(), null);
+                }
+            }
         }
 
         @Override
         public TransformationMatrix apply(float time)
         {
-            TransformationMatrix ret = TransformationMatrix.identity();
             if(node.getAnimation() == null)
             {
-                return ret.compose(new TransformationMatrix(node.getPos(), node.getRot(), node.getScale(), null));
+                return rest;
             }
             int start = Math.max(1, (int)Math.round(Math.floor(time)));
             int end = Math.min(start + 1, (int)Math.round(Math.ceil(time)));
             float progress = time - (float)Math.floor(time);
-            Key keyStart = node.getAnimation().getKeys().get(start, node);
-            Key keyEnd = node.getAnimation().getKeys().get(end, node);
-            TransformationMatrix startTr = keyStart == null ? null : new TransformationMatrix(keyStart.getPos(), keyStart.getRot(),keyStart.getScale(), null);
-            TransformationMatrix endTr = keyEnd == null ? null : new TransformationMatrix(keyEnd.getPos(), keyEnd.getRot(),keyEnd.getScale(), null);
-            if(keyStart == null)
+            TransformationMatrix startTr = getKey(start);
+            TransformationMatrix endTr = getKey(end);
+            if(startTr == null)
             {
-                if(keyEnd == null)
-                {
-                    ret = ret.compose(new TransformationMatrix(node.getPos(), node.getRot(), node.getScale(), null));
-                }
-                // TODO animated TRSRTransformation for speed?
-                else
-                {
-                    ret = ret.compose(endTr);
-                }
+                return endTr == null ? rest : endTr;
             }
-            else if(progress < 1e-5 || keyEnd == null)
+            else if(progress < 1e-5 || endTr == null)
             {
-                ret = ret.compose(startTr);
+                return startTr;
             }
-            else
+            return TransformationHelper.slerp(startTr, endTr, progress);
+        }
+
+        @Nullable
+        private TransformationMatrix getKey(int frame)
+        {
+            if(frame >= 0 && frame < keys.length)
             {
-                ret = ret.compose(TransformationHelper.slerp(startTr, endTr, progress));
+                return keys[frame];
             }
-            return ret;
+            Key key = node.getAnimation().getKeys().get(frame, node);
+            return key == null ? null : new TransformationMatrix(key.getPos(), key.getRot(), key.getScale(), null);
         }
     }
 }
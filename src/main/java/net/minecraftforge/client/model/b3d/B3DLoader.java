@@ -21,8 +21,10 @@ package net.minecraftforge.client.model.b3d;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -30,6 +32,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -61,6 +64,8 @@ import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.MapMaker;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
 
@@ -134,6 +139,7 @@ public enum B3DLoader implements ISelectiveResourceReloadListener
                 }
                 B3DModel.Parser parser = new B3DModel.Parser(resource.getInputStream());
                 B3DModel model = parser.parse();
+                B3DState.bakeAnimation(model.getRoot());
                 cache.put(file, model);
             }
             catch(IOException e)
@@ -266,6 +272,15 @@ public enum B3DLoader implements ISelectiveResourceReloadListener
             return nodeTransform;
         }
 
+        // Animations longer than this are not sampled up front, their poses go through the bounded cache instead
+        private static final int MAX_BAKED_FRAMES = 1024;
+        private static final Animation NO_ANIMATION = new Animation(0, 0, 0, ImmutableTable.of());
+
+        // Model-global pose of each node for every frame of an animation, shared by every state and model instance using it
+        private static final LoadingCache<Animation, ConcurrentMap<Node<?>, TransformationMatrix[]>> poses = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build(CacheLoader.from(() -> new MapMaker().weakKeys().makeMap()));
+
         private static LoadingCache<Triple<Animation, Node<?>, Integer>, TransformationMatrix> cache = CacheBuilder.newBuilder()
             .maximumSize(16384)
             .expireAfterAccess(2, TimeUnit.MINUTES)
@@ -278,6 +293,59 @@ public enum B3DLoader implements ISelectiveResourceReloadListener
                 }
             });
 
+        /**
+         * Samples the poses of every node under the root for each frame of its animation, so rendering only has to look them up and interpolate.
+         */
+        static void bakeAnimation(Node<?> root)
+        {
+            Animation animation = root.getAnimation();
+            if(animation == null || animation.getFrames() > MAX_BAKED_FRAMES)
+            {
+                return;
+            }
+            Deque<Node<?>> queue = new ArrayDeque<>();
+            queue.add(root);
+            while(!queue.isEmpty())
+            {
+                Node<?> node = queue.pop();
+                getPoses(animation, node);
+                queue.addAll(node.getNodes().values());
+            }
+        }
+
+        @Nullable
+        private static TransformationMatrix[] getPoses(@Nullable Animation animation, Node<?> node)
+        {
+            Animation nodeAnimation = animation != null ? animation : node.getAnimation();
+            int frames = nodeAnimation == null ? 0 : nodeAnimation.getFrames();
+            if(frames > MAX_BAKED_FRAMES)
+            {
+                return null;
+            }
+            ConcurrentMap<Node<?>, TransformationMatrix[]> nodePoses = poses.getUnchecked(animation == null ? NO_ANIMATION : animation);
+            TransformationMatrix[] ret = nodePoses.get(node);
+            if(ret == null)
+            {
+                ret = new TransformationMatrix[frames + 1];
+                for(int frame = 0; frame <= frames; frame++)
+                {
+                    ret[frame] = getNodeMatrix(animation, node, frame);
+                }
+                nodePoses.putIfAbsent(node, ret);
+            }
+            return ret;
+        }
+
+        private static TransformationMatrix getPose(@Nullable Animation animation, Node<?> node, int frame)
+        {
+            TransformationMatrix[] frames = getPoses(animation, node);
+            if(frames != null && frame >= 0 && frame < frames.length)
+            {
+                return frames[frame];
+            }
+            return cache.getUnchecked(Triple.of(animation, node, frame));
+        }
+
         public TransformationMatrix getNodeMatrix(Node<?> node)
         {
             return getNodeMatrix(node, frame);
@@ -285,7 +353,7 @@ public enum B3DLoader implements ISelectiveResourceReloadListener
 
         public TransformationMatrix getNodeMatrix(Node<?> node, int frame)
         {
-            return cache.getUnchecked(Triple.of(animation, node, frame));
+            return getPose(animation, node, frame);
         }
 
         public static TransformationMatrix getNodeMatrix(@Nullable Animation animation, Node<?> node, int frame)
@@ -300,7 +368,7 @@ public enum B3DLoader implements ISelectiveResourceReloadListener
                 if(parent != null)
                 {
                     // parent model-global current pose
-                    TransformationMatrix pm = cache.getUnchecked(Triple.of(animation, node.getParent(), frame));
+                    TransformationMatrix pm = getPose(animation, parent, frame);
                     ret = ret.compose(pm);
                     // joint offset in the parent coords
                     ret = ret.compose(new TransformationMatrix(parent.getPos(), parent.getRot(), parent.getScale(), null));
@@ -329,7 +397,7 @@ public enum B3DLoader implements ISelectiveResourceReloadListener
                 if(parent != null)
                 {
                     // parent model-global current pose
-                    TransformationMatrix pm = cache.getUnchecked(Triple.of(animation, node.getParent(), frame));
+                    TransformationMatrix pm = getPose(animation, parent, frame);
                     ret = ret.compose(pm);
                     // joint offset in the parent coords
                     ret = ret.compose(new TransformationMatrix(parent.getPos(), parent.getRot(), parent.getScale(), null));
@@ -0,0 +1,169 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2021.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.minecraftforge.client.model.obj;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketBuffer;
+
+/**
+ * Compact binary form of an OBJ file: only the statements {@link OBJModel} understands, with all numbers already parsed.
+ * This is what OBJ models are read from, either compiled from the text right before or loaded from the on-disk cache.
+ */
+final class CompiledOBJ
+{
+    /** Bump whenever the layout below changes, so stale cache files are recompiled. */
+    static final int VERSION = 1;
+
+    static final int END = -1;
+    static final int MTLLIB = 0;
+    static final int USEMTL = 1;
+    static final int VERTEX = 2;
+    static final int TEX_COORD = 3;
+    static final int NORMAL = 4;
+    static final int COLOR = 5;
+    static final int FACE = 6;
+    static final int SMOOTHING_GROUP = 7;
+    static final int GROUP = 8;
+    static final int OBJECT = 9;
+
+    private static final int MAX_INDICES = 16;
+
+    private final PacketBuffer buf;
+
+    CompiledOBJ(byte[] data)
+    {
+        this.buf = new PacketBuffer(Unpooled.wrappedBuffer(data));
+    }
+
+    /**
+     * Compiles OBJ text. Statements are written as their type byte followed by:
+     * <ul>
+     * <li>vertex data: the number of values, at most 4, then the values as floats</li>
+     * <li>faces: the number of vertices, then for each the number of indices and the raw 1-based or negative indices</li>
+     * <li>everything else: the number of arguments, then the arguments as strings</li>
+     * </ul>
+     */
+    static byte[] compile(byte[] text)
+    {
+        OBJTokenizer tokens = new OBJTokenizer(text);
+        PacketBuffer out = new PacketBuffer(Unpooled.buffer(Math.max(256, text.length / 2)));
+        int[] indices = new int[MAX_INDICES];
+        while (tokens.next())
+        {
+            int type = typeOf(tokens);
+            if (type == END)
+                continue;
+
+            out.writeByte(type);
+            int args = tokens.count() - 1;
+            switch (type)
+            {
+                case VERTEX:
+                case TEX_COORD:
+                case NORMAL:
+                case COLOR:
+                    args = Math.min(args, 4);
+                    out.writeByte(args);
+                    for (int i = 1; i <= args; i++)
+                        out.writeFloat(tokens.getFloat(i));
+                    break;
+                case FACE:
+                    out.writeVarInt(args);
+                    for (int i = 1; i <= args; i++)
+                    {
+                        int n = tokens.getIndices(i, indices);
+                        out.writeByte(n);
+                        for (int j = 0; j < n; j++)
+                            out.writeVarInt(indices[j]);
+                    }
+                    break;
+                default:
+                    out.writeVarInt(args);
+                    for (int i = 1; i <= args; i++)
+                        out.writeUtf(tokens.get(i));
+                    break;
+            }
+        }
+
+        byte[] ret = new byte[out.readableBytes()];
+        out.readBytes(ret);
+        return ret;
+    }
+
+    private static int typeOf(OBJTokenizer tokens)
+    {
+        if (tokens.is(0, "v"))       return VERTEX;
+        if (tokens.is(0, "vt"))      return TEX_COORD;
+        if (tokens.is(0, "vn"))      return NORMAL;
+        if (tokens.is(0, "f"))       return FACE;
+        if (tokens.is(0, "vc"))      return COLOR;
+        if (tokens.is(0, "s"))       return SMOOTHING_GROUP;
+        if (tokens.is(0, "usemtl"))  return USEMTL;
+        if (tokens.is(0, "g"))       return GROUP;
+        if (tokens.is(0, "o"))       return OBJECT;
+        if (tokens.is(0, "mtllib"))  return MTLLIB;
+        return END;
+    }
+
+    /**
+     * @return the type of the next statement, or {@link #END}
+     */
+    int next()
+    {
+        return buf.isReadable() ? buf.readByte() : END;
+    }
+
+    /**
+     * Reads the values of a vertex data statement into {@code out}, filling missing ones with {@code fill}.
+     * @return the number of values present in the file
+     */
+    int readValues(float[] out, float[] fill)
+    {
+        int n = buf.readByte();
+        for (int i = 0; i < out.length; i++)
+            out[i] = i < n ? buf.readFloat() : fill[i];
+        for (int i = out.length; i < n; i++)
+            buf.readFloat();
+        return n;
+    }
+
+    /**
+     * @return the vertices of a face statement, as the raw indices written in the file
+     */
+    int[][] readFace()
+    {
+        int[][] vertices = new int[buf.readVarInt()][];
+        for (int i = 0; i < vertices.length; i++)
+        {
+            int[] vertex = new int[buf.readByte()];
+            for (int j = 0; j < vertex.length; j++)
+                vertex[j] = buf.readVarInt();
+            vertices[i] = vertex;
+        }
+        return vertices;
+    }
+
+    String[] readStrings()
+    {
+        String[] ret = new String[buf.readVarInt()];
+        for (int i = 0; i < ret.length; i++)
+            ret[i] = buf.readUtf();
+        return ret;
+    }
+}
@@ -20,27 +20,44 @@
 package net.minecraftforge.client.model.obj;
 
 import com.google.common.collect.Maps;
+import com.google.common.hash.Hashing;
 import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonObject;
+import io.netty.buffer.Unpooled;
 import net.minecraft.client.Minecraft;
+import net.minecraft.network.PacketBuffer;
 import net.minecraft.resources.IResource;
 import net.minecraft.resources.IResourceManager;
 import net.minecraft.util.JSONUtils;
 import net.minecraft.util.ResourceLocation;
 import net.minecraftforge.client.model.IModelLoader;
+import net.minecraftforge.common.ForgeConfig;
+import net.minecraftforge.fml.loading.FMLPaths;
+import org.apache.commons.io.IOUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import javax.annotation.Nullable;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 
 public class OBJLoader implements IModelLoader<OBJModel>
 {
+    private static final Logger LOGGER = LogManager.getLogger();
+
     public static OBJLoader INSTANCE = new OBJLoader();
 
     private final Map<OBJModel.ModelSettings, OBJModel> modelCache = Maps.newHashMap();
     private final Map<ResourceLocation, MaterialLibrary> materialCache = Maps.newHashMap();
 
+    // Compiled models by hash of their text, kept for one extra reload so unchanged files are not parsed again
+    private Map<String, byte[]> compiledCache = Maps.newHashMap();
+    private Map<String, byte[]> previousCompiledCache = Maps.newHashMap();
+
     private IResourceManager manager = Minecraft.getInstance().getResourceManager();
 
     @Override
@@ -48,6 +65,8 @@ public class OBJLoader implements IModelLoader<OBJModel>
     {
         modelCache.clear();
         materialCache.clear();
+        previousCompiledCache = compiledCache;
+        compiledCache = Maps.newHashMap();
         manager = resourceManager;
     }
 
@@ -73,10 +92,9 @@ public class OBJLoader implements IModelLoader<OBJModel>
     {
         return modelCache.computeIfAbsent(settings, (data) -> {
 
-            try(IResource resource = manager.getResource(settings.modelLocation);
-                LineReader rdr = new LineReader(resource))
+            try(IResource resource = manager.getResource(settings.modelLocation))
             {
-                return new OBJModel(rdr, settings);
+                return new OBJModel(new CompiledOBJ(getCompiledModel(settings.modelLocation, resource)), settings);
             }
             catch (FileNotFoundException e)
             {
@@ -89,6 +107,83 @@ public class OBJLoader implements IModelLoader<OBJModel>
         });
     }
 
+    private byte[] getCompiledModel(ResourceLocation location, IResource resource) throws IOException
+    {
+        byte[] text = IOUtils.toByteArray(resource.getInputStream());
+        String hash = Hashing.sha256().hashBytes(text).toString();
+
+        byte[] compiled = compiledCache.get(hash);
+        if (compiled == null)
+            compiled = previousCompiledCache.get(hash);
+
+        boolean diskCache = ForgeConfig.CLIENT.objModelCacheEnabled.get();
+        if (compiled == null && diskCache)
+            compiled = readCachedModel(location, hash);
+
+        if (compiled == null)
+        {
+            compiled = CompiledOBJ.compile(text);
+            if (diskCache)
+                writeCachedModel(location, hash, compiled);
+        }
+
+        compiledCache.put(hash, compiled);
+        return compiled;
+    }
+
+    private static Path getCacheFile(ResourceLocation location)
+    {
+        return FMLPaths.GAMEDIR.get().resolve("objcache").resolve(location.getNamespace()).resolve(location.getPath() + ".bin");
+    }
+
+    /**
+     * Cache files hold the format version and the hash of the text they were compiled from, followed by the compiled model.
+     */
+    @Nullable
+    private static byte[] readCachedModel(ResourceLocation location, String hash)
+    {
+        Path file = getCacheFile(location);
+        if (!Files.exists(file))
+            return null;
+        try
+        {
+            PacketBuffer buf = new PacketBuffer(Unpooled.wrappedBuffer(Files.readAllBytes(file)));
+            if (buf.readVarInt() != CompiledOBJ.VERSION || !hash.equals(buf.readUtf()))
+                return null;
+            byte[] ret = new byte[buf.readableBytes()];
+            buf.readBytes(ret);
+            return ret;
+        }
+        catch (IOException | RuntimeException e)
+        {
+            LOGGER.warn("Failed to read cached OBJ model {}", location, e);
+            return null;
+        }
+    }
+
+    private static void writeCachedModel(ResourceLocation location, String hash, byte[] compiled)
+    {
+        Path file = getCacheFile(location);
+        try
+        {
+            Files.createDirectories(file.getParent());
+            PacketBuffer buf = new PacketBuffer(Unpooled.buffer(compiled.length + 80));
+            buf.writeVarInt(CompiledOBJ.VERSION);
+            buf.writeUtf(hash);
+            buf.writeBytes(compiled);
+            byte[] bytes = new byte[buf.readableBytes()];
+            buf.readBytes(bytes);
+
+            Path tmp = Files.createTempFile(file.getParent(), "model", ".tmp");
+            Files.write(tmp, bytes);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException e)
+        {
+            LOGGER.warn("Failed to cache compiled OBJ model {}", location, e);
+        }
+    }
+
     public MaterialLibrary loadMaterialLibrary(ResourceLocation materialLocation)
     {
         return materialCache.computeIfAbsent(materialLocation, (location) -> {
@@ -23,6 +23,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import it.unimi.dsi.fastutil.floats.FloatArrayList;
 import joptsimple.internal.Strings;
 import net.minecraft.client.renderer.model.*;
 import net.minecraft.client.renderer.texture.TextureAtlasSprite;
@@ -43,7 +44,6 @@ import org.apache.commons.lang3.tuple.Pair;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.io.IOException;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -60,10 +60,13 @@ public class OBJModel implements IMultipartModelGeometry<OBJModel>
 
     private final Map<String, ModelGroup> parts = Maps.newHashMap();
 
-    private final List<Vector3f> positions = Lists.newArrayList();
-    private final List<Vector2f> texCoords = Lists.newArrayList();
-    private final List<Vector3f> normals = Lists.newArrayList();
-    private final List<Vector4f> colors = Lists.newArrayList();
+    private static final float[] DEFAULT_VECTOR = { 0, 0, 0, 1 };
+
+    // Packed vertex data, 3 floats per position and normal, 2 per texture coordinate and 4 per color
+    private final FloatArrayList positions = new FloatArrayList();
+    private final FloatArrayList texCoords = new FloatArrayList();
+    private final FloatArrayList normals = new FloatArrayList();
+    private final FloatArrayList colors = new FloatArrayList();
 
     public final boolean detectCullableFaces;
     public final boolean diffuseLighting;
@@ -76,7 +79,7 @@ public class OBJModel implements IMultipartModelGeometry<OBJModel>
     public final String materialLibraryOverrideLocation;
 
 
-    OBJModel(LineReader reader, ModelSettings settings) throws IOException
+    OBJModel(CompiledOBJ reader, ModelSettings settings)
     {
         this.modelLocation = settings.modelLocation;
         this.detectCullableFaces = settings.detectCullableFaces;
@@ -112,17 +115,19 @@ public class OBJModel implements IMultipartModelGeometry<OBJModel>
                 mtllib = OBJLoader.INSTANCE.loadMaterialLibrary(new ResourceLocation(modelDomain, modelPath + lib));
         }
 
-        String[] line;
-        while((line = reader.readAndSplitLine(true)) != null)
+        float[] values = new float[4];
+        int type;
+        while((type = reader.next()) != CompiledOBJ.END)
         {
-            switch(line[0])
+            switch(type)
             {
-                case "mtllib": // Loads material library
+                case CompiledOBJ.MTLLIB: // Loads material library
                 {
+                    String[] args = reader.readStrings();
                     if (materialLibraryOverrideLocation != null)
                         break;
 
-                    String lib = line[1];
+                    String lib = args[0];
                     if (lib.contains(":"))
                         mtllib = OBJLoader.INSTANCE.loadMaterialLibrary(new ResourceLocation(lib));
                     else
@@ -130,9 +135,9 @@ public class OBJModel implements IMultipartModelGeometry<OBJModel>
                     break;
                 }
 
-                case "usemtl": // Sets the current material (starts new mesh)
+                case CompiledOBJ.USEMTL: // Sets the current material (starts new mesh)
                 {
-                    String mat = Strings.join(Arrays.copyOfRange(line, 1, line.length), " ");
+                    String mat = Strings.join(reader.readStrings(), " ");
                     MaterialLibrary.Material newMat = mtllib.getMaterial(mat);
                     if (!Objects.equals(newMat, currentMat))
                     {
@@ -150,20 +155,29 @@ public class OBJModel implements IMultipartModelGeometry<OBJModel>
                     break;
                 }
 
-                case "v": // Vertex
-                    positions.add(parseVector4To3(line));
+                case CompiledOBJ.VERTEX: // Vertex
+                    reader.readValues(values, DEFAULT_VECTOR);
+                    positions.add(values[0] / values[3]);
+                    positions.add(values[1] / values[3]);
+                    positions.add(values[2] / values[3]);
                     break;
-                case "vt": // Vertex texcoord
-                    texCoords.add(parseVector2(line));
+                case CompiledOBJ.TEX_COORD: // Vertex texcoord
+                    reader.readValues(values, DEFAULT_VECTOR);
+                    texCoords.add(values[0]);
+                    texCoords.add(values[1]);
                     break;
-                case "vn": // Vertex normal
-                    normals.add(parseVector3(line));
+                case CompiledOBJ.NORMAL: // Vertex normal
+                    reader.readValues(values, DEFAULT_VECTOR);
+                    normals.add(values[0]);
+                    normals.add(values[1]);
+                    normals.add(values[2]);
                     break;
-                case "vc": // Vertex color (non-standard)
-                    colors.add(parseVector4(line));
+                case CompiledOBJ.COLOR: // Vertex color (non-standard)
+                    reader.readValues(values, DEFAULT_VECTOR);
+                    colors.addElements(colors.size(), values);
                     break;
 
-                case "f": // Face
+                case CompiledOBJ.FACE: // Face
                 {
                     if (currentMesh == null)
                     {
@@ -183,30 +197,26 @@ public class OBJModel implements IMultipartModelGeometry<OBJModel>
                         }
                     }
 
-                    int[][] vertices = new int[line.length-1][];
-                    for(int i=0;i<vertices.length;i++)
+                    int[][] vertices = reader.readFace();
+                    for (int[] vertex : vertices)
                     {
-                        String vertexData = line[i+1];
-                        String[] vertexParts = vertexData.split("/");
-                        int[] vertex = Arrays.stream(vertexParts).mapToInt(num -> Strings.isNullOrEmpty(num) ? 0 : Integer.parseInt(num)).toArray();
-                        if (vertex[0] < 0) vertex[0] = positions.size() + vertex[0];
+                        if (vertex[0] < 0) vertex[0] = positions.size() / 3 + vertex[0];
                         else vertex[0]--;
                         if (vertex.length > 1)
                         {
-                            if (vertex[1] < 0) vertex[1] = texCoords.size() + vertex[1];
+                            if (vertex[1] < 0) vertex[1] = texCoords.size() / 2 + vertex[1];
                             else vertex[1]--;
                             if (vertex.length > 2)
                             {
-                                if (vertex[2] < 0) vertex[2] = normals.size() + vertex[2];
+                                if (vertex[2] < 0) vertex[2] = normals.size() / 3 + vertex[2];
                                 else vertex[2]--;
                                 if (vertex.length > 3)
                                 {
-                                    if (vertex[3] < 0) vertex[3] = colors.size() + vertex[3];
+                                    if (vertex[3] < 0) vertex[3] = colors.size() / 4 + vertex[3];
                                     else vertex[3]--;
                                 }
                             }
                         }
-                        vertices[i] = vertex;
                     }
 
                     currentMesh.faces.add(vertices);
@@ -214,9 +224,10 @@ public class OBJModel implements IMultipartModelGeometry<OBJModel>
                     break;
                 }
 
-                case "s": // Smoothing group (starts new mesh)
+                case CompiledOBJ.SMOOTHING_GROUP: // Smoothing group (starts new mesh)
                 {
-                    String smoothingGroup = "off".equals(line[1]) ? null : line[1];
+                    String[] args = reader.readStrings();
+                    String smoothingGroup = "off".equals(args[0]) ? null : args[0];
                     if (!Objects.equals(currentSmoothingGroup, smoothingGroup))
                     {
                         currentSmoothingGroup = smoothingGroup;
@@ -233,9 +244,9 @@ public class OBJModel implements IMultipartModelGeometry<OBJModel>
                     break;
                 }
 
-                case "g":
+                case CompiledOBJ.GROUP:
                 {
-                    String name = line[1];
+                    String name = reader.readStrings()[0];
                     if (objAboveGroup)
                     {
                         currentObject = new ModelObject(currentGroup.name() + "/" + name);
@@ -252,9 +263,9 @@ public class OBJModel implements IMultipartModelGeometry<OBJModel>
                     break;
                 }
 
-                case "o":
+                case CompiledOBJ.OBJECT:
                 {
-                    String name = line[1];
+                    String name = reader.readStrings()[0];
                     if (objAboveGroup || currentGroup == null)
                     {
                         objAboveGroup = true;
@@ -272,6 +283,9 @@ public class OBJModel implements IMultipartModelGeometry<OBJModel>
                     currentMesh = null;
                     break;
                 }
+
+                default:
+                    throw new IllegalStateException("Unknown compiled OBJ statement " + type);
             }
         }
     }
@@ -325,6 +339,11 @@ public class OBJModel implements IMultipartModelGeometry<OBJModel>
         }
     }
 
+    private Vector3f getPosition(int index)
+    {
+        return new Vector3f(positions.getFloat(index * 3), positions.getFloat(index * 3 + 1), positions.getFloat(index * 3 + 2));
+    }
+
     @Override
     public Collection<? extends IModelGeometryPart> getParts()
     {
@@ -346,12 +365,10 @@ public class OBJModel implements IMultipartModelGeometry<OBJModel>
         }
         Vector3f faceNormal = new Vector3f(0,0,0);
         if (needsNormalRecalculation) {
-            Vector3f a = positions.get(indices[0][0]);
-            Vector3f ab = positions.get(indices[1][0]);
-            Vector3f ac = positions.get(indices[2][0]);
-            Vector3f abs = ab.copy();
+            Vector3f a = getPosition(indices[0][0]);
+            Vector3f abs = getPosition(indices[1][0]);
             abs.sub(a);
-            Vector3f acs = ac.copy();
+            Vector3f acs = getPosition(indices[2][0]);
             acs.sub(a);
             abs.cross(acs);
             abs.normalize();
@@ -384,15 +401,14 @@ public class OBJModel implements IMultipartModelGeometry<OBJModel>
         for(int i=0;i<4;i++)
         {
             int[] index = indices[Math.min(i,indices.length-1)];
-            Vector3f pos0 = positions.get(index[0]);
-            Vector4f position = new Vector4f(pos0);
-            Vector2f texCoord = index.length >= 2 && texCoords.size() > 0 ? texCoords.get(index[1]) : DEFAULT_COORDS[i];
-            Vector3f norm0 = !needsNormalRecalculation && index.length >= 3 && normals.size() > 0 ? normals.get(index[2]) : faceNormal;
-            Vector3f normal = norm0;
-            Vector4f color = index.length >= 4 && colors.size() > 0 ? colors.get(index[3]) : COLOR_WHITE;
+            Vector4f position = new Vector4f(positions.getFloat(index[0] * 3), positions.getFloat(index[0] * 3 + 1), positions.getFloat(index[0] * 3 + 2), 1);
+            Vector2f texCoord = index.length >= 2 && texCoords.size() > 0 ? new Vector2f(texCoords.getFloat(index[1] * 2), texCoords.getFloat(index[1] * 2 + 1)) : DEFAULT_COORDS[i];
+            Vector3f normal = !needsNormalRecalculation && index.length >= 3 && normals.size() > 0 ? new Vector3f(normals.getFloat(index[2] * 3), normals.getFloat(index[2] * 3 + 1), normals.getFloat(index[2] * 3 + 2)) : faceNormal;
+            Vector4f color = index.length >= 4 && colors.size() > 0 ? new Vector4f(colors.getFloat(index[3] * 4), colors.getFloat(index[3] * 4 + 1), colors.getFloat(index[3] * 4 + 2), colors.getFloat(index[3] * 4 + 3)) : COLOR_WHITE;
             if (hasTransform)
             {
-                normal = norm0.copy();
+                if (normal == faceNormal)
+                    normal = faceNormal.copy();
                 transformation.transformPosition(position);
                 transformation.transformNormal(normal);
             };
@@ -0,0 +1,267 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2021.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package net.minecraftforge.client.model.obj;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Splits OBJ and MTL text into tokens the same way {@link LineReader} does, but works directly on the raw bytes.
+ * Tokens are only tracked as offsets, and numbers are parsed straight from the bytes without creating strings.
+ */
+final class OBJTokenizer
+{
+    private static final float[] POWERS_OF_TEN = { 1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f };
+
+    private final byte[] data;
+    private int pos = 0;
+
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int count = 0;
+
+    OBJTokenizer(byte[] data)
+    {
+        this.data = data;
+    }
+
+    /**
+     * Advances to the next line that has any tokens, joining lines ending in a backslash.
+     * @return false once the end of the data has been reached
+     */
+    boolean next()
+    {
+        count = 0;
+        while (count == 0)
+        {
+            if (pos >= data.length)
+                return false;
+
+            int start = pos;
+            int end = lineEnd(start);
+            pos = skipTerminator(end);
+            if (end == start || data[start] == '#')
+                continue;
+
+            while (true)
+            {
+                boolean continued = data[end - 1] == '\\';
+                tokenize(start, continued ? end - 1 : end);
+                if (!continued || pos >= data.length)
+                    break;
+
+                start = pos;
+                end = lineEnd(start);
+                pos = skipTerminator(end);
+                if (end == start || data[start] == '#')
+                    break;
+            }
+        }
+        return true;
+    }
+
+    int count()
+    {
+        return count;
+    }
+
+    boolean is(int token, String ascii)
+    {
+        int start = starts[token];
+        if (ends[token] - start != ascii.length())
+            return false;
+        for (int i = 0; i < ascii.length(); i++)
+        {
+            if (data[start + i] != ascii.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    String get(int token)
+    {
+        return new String(data, starts[token], ends[token] - starts[token], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Same result as {@link Float#parseFloat(String)}, without allocating for plain decimal numbers.
+     */
+    float getFloat(int token)
+    {
+        int p = starts[token];
+        int end = ends[token];
+
+        boolean negative = false;
+        if (p < end && (data[p] == '-' || data[p] == '+'))
+            negative = data[p++] == '-';
+
+        long mantissa = 0;
+        int significant = 0;
+        int exponent = 0;
+        boolean digits = false;
+        boolean fraction = false;
+        for (; p < end; p++)
+        {
+            byte b = data[p];
+            if (b == '.' && !fraction)
+            {
+                fraction = true;
+                continue;
+            }
+            if (b < '0' || b > '9')
+                break;
+            digits = true;
+            if (mantissa != 0 || b != '0')
+            {
+                if (++significant > 18)
+                    return slowFloat(token);
+                mantissa = mantissa * 10 + (b - '0');
+            }
+            if (fraction)
+                exponent--;
+        }
+        if (!digits)
+            return slowFloat(token);
+
+        if (p < end && (data[p] == 'e' || data[p] == 'E'))
+        {
+            p++;
+            boolean negativeExponent = false;
+            if (p < end && (data[p] == '-' || data[p] == '+'))
+                negativeExponent = data[p++] == '-';
+            int exp = 0;
+            int expStart = p;
+            for (; p < end && data[p] >= '0' && data[p] <= '9'; p++)
+            {
+                if (p - expStart >= 3)
+                    return slowFloat(token);
+                exp = exp * 10 + (data[p] - '0');
+            }
+            if (p == expStart)
+                return slowFloat(token);
+            exponent += negativeExponent ? -exp : exp;
+        }
+
+        // Anything more than a single correctly rounded float operation is left to the JDK
+        if (p != end || mantissa > (1 << 24) || exponent < -10 || exponent > 10)
+            return slowFloat(token);
+
+        float value = mantissa;
+        if (exponent < 0)
+            value /= POWERS_OF_TEN[-exponent];
+        else
+            value *= POWERS_OF_TEN[exponent];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Reads the '/' separated indices of a face vertex into {@code out}, like splitting the token on '/'
+     * and parsing each part, with empty parts read as 0 and trailing empty parts dropped.
+     * @return the number of indices read
+     */
+    int getIndices(int token, int[] out)
+    {
+        int start = starts[token];
+        int end = ends[token];
+        while (end > start && data[end - 1] == '/')
+            end--;
+        if (end == start)
+        {
+            out[0] = 0;
+            return 1;
+        }
+
+        int n = 0;
+        int partStart = start;
+        for (int p = start; p <= end; p++)
+        {
+            if (p == end || data[p] == '/')
+            {
+                if (n == out.length)
+                    throw new IllegalArgumentException("Too many indices in face vertex " + get(token));
+                out[n++] = p == partStart ? 0 : parseInt(partStart, p);
+                partStart = p + 1;
+            }
+        }
+        return n;
+    }
+
+    private int parseInt(int start, int end)
+    {
+        int p = start;
+        boolean negative = data[p] == '-';
+        if (negative || data[p] == '+')
+            p++;
+        if (p == end || end - p > 9)
+            return Integer.parseInt(new String(data, start, end - start, StandardCharsets.UTF_8));
+        int value = 0;
+        for (; p < end; p++)
+        {
+            byte b = data[p];
+            if (b < '0' || b > '9')
+                return Integer.parseInt(new String(data, start, end - start, StandardCharsets.UTF_8));
+            value = value * 10 + (b - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    private float slowFloat(int token)
+    {
+        return Float.parseFloat(get(token));
+    }
+
+    private int lineEnd(int p)
+    {
+        while (p < data.length && data[p] != '\n' && data[p] != '\r')
+            p++;
+        return p;
+    }
+
+    private int skipTerminator(int end)
+    {
+        if (end >= data.length)
+            return end;
+        if (data[end] == '\r' && end + 1 < data.length && data[end + 1] == '\n')
+            return end + 2;
+        return end + 1;
+    }
+
+    private void tokenize(int from, int to)
+    {
+        int p = from;
+        while (p < to)
+        {
+            while (p < to && (data[p] == ' ' || data[p] == '\t'))
+                p++;
+            if (p == to)
+                break;
+            int start = p;
+            while (p < to && data[p] != ' ' && data[p] != '\t')
+                p++;
+            if (count == starts.length)
+            {
+                starts = Arrays.copyOf(starts, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+            }
+            starts[count] = start;
+            ends[count] = p;
+            count++;
+        }
+    }
+}
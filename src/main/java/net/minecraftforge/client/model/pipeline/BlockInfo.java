@@ -19,11 +19,16 @@
 
 package net.minecraftforge.client.model.pipeline;
 
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.client.renderer.LightTexture;
 import net.minecraft.client.renderer.WorldRenderer;
+import net.minecraft.client.renderer.chunk.ChunkRenderCache;
 import net.minecraft.client.renderer.color.BlockColors;
 import net.minecraft.util.Direction;
 import net.minecraft.util.math.BlockPos;
@@ -54,9 +59,23 @@ public class BlockInfo
     private int cachedTint = -1;
     private int cachedMultiplier = -1;
 
+    // Light, shade and translucency samples of the chunk being rebuilt on this thread, neighbouring blocks share most of them
+    private WeakReference<IBlockDisplayReader> sampledWorld = new WeakReference<>(null);
+    private final Long2IntOpenHashMap sampleSlots = new Long2IntOpenHashMap();
+    private int[] sampleLight = new int[0];
+    private float[] sampleShade = new float[0];
+    private boolean[] sampleTranslucent = new boolean[0];
+    private int sampleCount;
+    private final BlockPos.Mutable samplePos = new BlockPos.Mutable();
+    // Position and state the light matrix was last computed for, a block rendered in several layers reuses it
+    private boolean matrixValid;
+    private long matrixPos;
+    private BlockState matrixState;
+
     public BlockInfo(BlockColors colors)
     {
         this.colors = colors;
+        this.sampleSlots.defaultReturnValue(-1);
     }
 
     public int getColorMultiplier(int tint)
@@ -111,21 +130,81 @@ public class BlockInfo
         return (c + s1 + s2 + s3) / (0xF * 4f);
     }
 
+    /**
+     * Whether the world is a snapshot taken for a chunk rebuild, whose light values can not change while it is in use
+     * and so can be cached.
+     */
+    private boolean useSamples()
+    {
+        if (!(world instanceof ChunkRenderCache))
+        {
+            matrixValid = false;
+            return false;
+        }
+        if (sampledWorld.get() != world)
+        {
+            sampledWorld = new WeakReference<>(world);
+            sampleSlots.clear();
+            sampleCount = 0;
+            matrixValid = false;
+        }
+        return true;
+    }
+
+    private int sample(int x, int y, int z)
+    {
+        BlockPos pos = samplePos.set(x, y, z);
+        long key = pos.asLong();
+        int slot = sampleSlots.get(key);
+        if (slot < 0)
+        {
+            slot = sampleCount++;
+            if (slot == sampleLight.length)
+            {
+                int size = Math.max(64, slot * 2);
+                sampleLight = Arrays.copyOf(sampleLight, size);
+                sampleShade = Arrays.copyOf(sampleShade, size);
+                sampleTranslucent = Arrays.copyOf(sampleTranslucent, size);
+            }
+            BlockState state = world.getBlockState(pos);
+            sampleTranslucent[slot] = state.getLightBlock(world, pos) < 15;
+            sampleLight[slot] = WorldRenderer.getLightColor(world, pos);
+            sampleShade[slot] = state.getShadeBrightness(world, pos);
+            sampleSlots.put(key, slot);
+        }
+        return slot;
+    }
+
     public void updateLightMatrix()
     {
+        boolean cached = useSamples();
+        if (cached && matrixValid && matrixPos == blockPos.asLong() && matrixState == state)
+            return;
+
         for(int x = 0; x <= 2; x++)
         {
             for(int y = 0; y <= 2; y++)
             {
                 for(int z = 0; z <= 2; z++)
                 {
-                    BlockPos pos = blockPos.offset(x - 1, y - 1, z - 1);
-                    BlockState state = world.getBlockState(pos);
-                    t[x][y][z] = state.getLightBlock(world, pos) < 15;
-                    int brightness = WorldRenderer.getLightColor(world, pos);
+                    int brightness;
+                    if (cached)
+                    {
+                        int slot = sample(blockPos.getX() + x - 1, blockPos.getY() + y - 1, blockPos.getZ() + z - 1);
+                        t[x][y][z] = sampleTranslucent[slot];
+                        brightness = sampleLight[slot];
+                        ao[x][y][z] = sampleShade[slot];
+                    }
+                    else
+                    {
+                        BlockPos pos = blockPos.offset(x - 1, y - 1, z - 1);
+                        BlockState state = world.getBlockState(pos);
+                        t[x][y][z] = state.getLightBlock(world, pos) < 15;
+                        brightness = WorldRenderer.getLightColor(world, pos);
+                        ao[x][y][z] = state.getShadeBrightness(world, pos);
+                    }
                     s[x][y][z] = LightTexture.sky(brightness);
                     b[x][y][z] = LightTexture.block(brightness);
-                    ao[x][y][z] = state.getShadeBrightness(world, pos);
                 }
             }
         }
@@ -185,11 +264,28 @@ public class BlockInfo
                 }
             }
         }
+
+        if (cached)
+        {
+            matrixValid = true;
+            matrixPos = blockPos.asLong();
+            matrixState = state;
+        }
     }
 
     public void updateFlatLighting()
     {
         full = Block.isShapeFullBlock(state.getCollisionShape(world, blockPos));
+        if (useSamples())
+        {
+            packed[0] = sampleLight[sample(blockPos.getX(), blockPos.getY(), blockPos.getZ())];
+            for (Direction side : SIDES)
+            {
+                int i = side.ordinal() + 1;
+                packed[i] = sampleLight[sample(blockPos.getX() + side.getStepX(), blockPos.getY() + side.getStepY(), blockPos.getZ() + side.getStepZ())];
+            }
+            return;
+        }
         packed[0] = WorldRenderer.getLightColor(world, blockPos);
 
         for (Direction side : SIDES)
@@ -22,6 +22,8 @@ package net.minecraftforge.client.model.pipeline;
 import java.util.List;
 import java.util.Random;
 
+import javax.annotation.Nullable;
+
 import com.mojang.blaze3d.matrix.MatrixStack;
 import com.mojang.blaze3d.vertex.IVertexBuilder;
 import net.minecraft.block.Block;
@@ -62,7 +64,7 @@ public class ForgeBlockModelRenderer extends BlockModelRenderer
             lighter.setParent(consumer);
             lighter.setTransform(matrixStack.last());
 
-            return render(lighter, world, model, state, pos, matrixStack, checkSides, rand, seed, modelData);
+            return render(lighter, buffer, world, model, state, pos, matrixStack, checkSides, rand, seed, modelData);
         }
         else
         {
@@ -82,7 +84,7 @@ public class ForgeBlockModelRenderer extends BlockModelRenderer
             lighter.setParent(consumer);
             lighter.setTransform(matrixStack.last());
 
-            return render(lighter, world, model, state, pos, matrixStack, checkSides, rand, seed, modelData);
+            return render(lighter, buffer, world, model, state, pos, matrixStack, checkSides, rand, seed, modelData);
         }
         else
         {
@@ -91,6 +93,15 @@ public class ForgeBlockModelRenderer extends BlockModelRenderer
     }
 
     public static boolean render(VertexLighterFlat lighter, IBlockDisplayReader world, IBakedModel model, BlockState state, BlockPos pos, MatrixStack matrixStack, boolean checkSides, Random rand, long seed, IModelData modelData)
+    {
+        return render(lighter, null, world, model, state, pos, matrixStack, checkSides, rand, seed, modelData);
+    }
+
+    /**
+     * @param buffer if not null, each quad is lit as a whole by {@link VertexLighterFlat#processQuad(BakedQuad, IVertexBuilder)}
+     *               and written straight to this buffer, instead of being piped through the lighter element by element
+     */
+    public static boolean render(VertexLighterFlat lighter, @Nullable IVertexBuilder buffer, IBlockDisplayReader world, IBakedModel model, BlockState state, BlockPos pos, MatrixStack matrixStack, boolean checkSides, Random rand, long seed, IModelData modelData)
     {
         lighter.setWorld(world);
         lighter.setState(state);
@@ -104,7 +115,7 @@ public class ForgeBlockModelRenderer extends BlockModelRenderer
             empty = false;
             for(BakedQuad quad : quads)
             {
-                quad.pipe(lighter);
+                render(lighter, buffer, quad);
             }
         }
         for(Direction side : Direction.values())
@@ -119,7 +130,7 @@ public class ForgeBlockModelRenderer extends BlockModelRenderer
                     empty = false;
                     for(BakedQuad quad : quads)
                     {
-                        quad.pipe(lighter);
+                        render(lighter, buffer, quad);
                     }
                 }
             }
@@ -127,4 +138,12 @@ public class ForgeBlockModelRenderer extends BlockModelRenderer
         lighter.resetBlockInfo();
         return !empty;
     }
+
+    private static void render(VertexLighterFlat lighter, @Nullable IVertexBuilder buffer, BakedQuad quad)
+    {
+        if (buffer != null)
+            lighter.processQuad(quad, buffer);
+        else
+            quad.pipe(lighter);
+    }
 }
@@ -25,10 +25,12 @@ import java.util.Objects;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.mojang.blaze3d.matrix.MatrixStack;
+import com.mojang.blaze3d.vertex.IVertexBuilder;
 
 import net.minecraft.block.BlockState;
 import net.minecraft.client.renderer.LightTexture;
 import net.minecraft.client.renderer.color.BlockColors;
+import net.minecraft.client.renderer.model.BakedQuad;
 import net.minecraft.client.renderer.texture.TextureAtlasSprite;
 import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
 import net.minecraft.client.renderer.vertex.VertexFormat;
@@ -62,6 +64,14 @@ public class VertexLighterFlat extends QuadGatheringTransformer
 
     protected VertexFormat baseFormat;
     protected MatrixStack.Entry pose;
+
+    // Scratch space for processQuad(BakedQuad, IVertexBuilder)
+    private final float[][] batchPosition = new float[4][4];
+    private final float[][] batchNormal = new float[4][4];
+    private final float[][] batchColor = new float[4][4];
+    private final float[][] batchLightmap = new float[4][2];
+    private final Vector4f batchPos = new Vector4f();
+    private final Vector3f batchNorm = new Vector3f();
     
     public VertexLighterFlat(BlockColors colors)
     {
@@ -261,6 +271,96 @@ public class VertexLighterFlat extends QuadGatheringTransformer
         tint = -1;
     }
 
+    /**
+     * Lights a whole quad directly from its packed {@link DefaultVertexFormats#BLOCK} vertex data and writes the result to
+     * the buffer. Produces the same vertices as piping the quad through this lighter into a {@link VertexBufferConsumer},
+     * without unpacking every element into float arrays and handing them over one at a time.
+     */
+    public void processQuad(BakedQuad quad, IVertexBuilder buffer)
+    {
+        int[] data = quad.getVertices();
+        int stride = DefaultVertexFormats.BLOCK.getIntegerSize();
+        float[][] position = batchPosition;
+        float[][] normal = batchNormal;
+        float[][] color = batchColor;
+        float[][] lightmap = batchLightmap;
+
+        for (int v = 0; v < 4; v++)
+        {
+            int i = v * stride;
+            position[v][0] = Float.intBitsToFloat(data[i]);
+            position[v][1] = Float.intBitsToFloat(data[i + 1]);
+            position[v][2] = Float.intBitsToFloat(data[i + 2]);
+            int c = data[i + 3];
+            color[v][0] = (c & 0xFF) / 255f;
+            color[v][1] = (c >>> 8 & 0xFF) / 255f;
+            color[v][2] = (c >>> 16 & 0xFF) / 255f;
+            color[v][3] = (c >>> 24 & 0xFF) / 255f;
+            int l = data[i + 6];
+            lightmap[v][0] = (short)l / 32767f;
+            lightmap[v][1] = (short)(l >>> 16) / 32767f;
+            int n = data[i + 7];
+            normal[v][0] = (byte)n / 127f;
+            normal[v][1] = (byte)(n >> 8) / 127f;
+            normal[v][2] = (byte)(n >> 16) / 127f;
+            normal[v][3] = 0;
+        }
+
+        if (normal[0][0] == 0 && normal[0][1] == 0 && normal[0][2] == 0) // normals must be generated
+        {
+            float ax = position[3][0] - position[1][0], ay = position[3][1] - position[1][1], az = position[3][2] - position[1][2];
+            float bx = position[2][0] - position[0][0], by = position[2][1] - position[0][1], bz = position[2][2] - position[0][2];
+            Vector3f cross = batchNorm;
+            cross.set(bx, by, bz);
+            cross.cross(new Vector3f(ax, ay, az));
+            cross.normalize();
+            for (int v = 0; v < 4; v++)
+            {
+                normal[v][0] = cross.x();
+                normal[v][1] = cross.y();
+                normal[v][2] = cross.z();
+            }
+        }
+
+        int tint = quad.isTinted() ? quad.getTintIndex() : -1;
+        int multiplier = tint != -1 ? blockInfo.getColorMultiplier(tint) : -1;
+
+        for (int v = 0; v < 4; v++)
+        {
+            float x = position[v][0] - .5f + normal[v][0] * .5f;
+            float y = position[v][1] - .5f + normal[v][1] * .5f;
+            float z = position[v][2] - .5f + normal[v][2] * .5f;
+
+            float blockLight = lightmap[v][0] * LIGHTMAP_RESCALE, skyLight = lightmap[v][1] * LIGHTMAP_RESCALE;
+            updateLightmap(normal[v], lightmap[v], x, y, z);
+            if (blockLight > lightmap[v][0]) lightmap[v][0] = blockLight;
+            if (skyLight > lightmap[v][1]) lightmap[v][1] = skyLight;
+            updateColor(normal[v], color[v], x, y, z, tint, multiplier);
+            if (quad.isShade())
+            {
+                float d = LightUtil.diffuseLight(normal[v][0], normal[v][1], normal[v][2]);
+                color[v][0] *= d;
+                color[v][1] *= d;
+                color[v][2] *= d;
+            }
+
+            int i = v * stride;
+            Vector4f pos = batchPos;
+            pos.set(position[v][0], position[v][1], position[v][2], 1);
+            pos.transform(pose.pose());
+            Vector3f norm = batchNorm;
+            norm.set(normal[v][0], normal[v][1], normal[v][2]);
+            norm.transform(pose.normal());
+
+            buffer.vertex(pos.x(), pos.y(), pos.z());
+            buffer.color(color[v][0], color[v][1], color[v][2], color[v][3]);
+            buffer.uv(Float.intBitsToFloat(data[i + 4]), Float.intBitsToFloat(data[i + 5]));
+            buffer.uv2((int) (lightmap[v][0] * 0xF0), (int) (lightmap[v][1] * 0xF0));
+            buffer.normal(norm.x(), norm.y(), norm.z());
+            buffer.endVertex();
+        }
+    }
+
     protected void updateLightmap(float[] normal, float[] lightmap, float x, float y, float z)
     {
         final float e1 = 1f - 1e-2f;
@@ -51,6 +51,9 @@ public class ForgeConfig
 
         public final BooleanValue fixAdvancementLoading;
 
+        public final IntValue pregenMaxInFlight;
+        public final IntValue pregenMaxPendingChunks;
+
         Server(ForgeConfigSpec.Builder builder) {
             builder.comment("Server configuration settings")
                    .push("server");
@@ -110,6 +113,16 @@ public class ForgeConfig
                     .translation("forge.configgui.fixAdvancementLoading")
                     .define("fixAdvancementLoading", true);
 
+            pregenMaxInFlight = builder
+                    .comment("The maximum number of chunks /forge generate requests from the chunk system at once.")
+                    .translation("forge.configgui.pregenMaxInFlight")
+                    .defineInRange("pregenMaxInFlight", 64, 1, 4096);
+
+            pregenMaxPendingChunks = builder
+                    .comment("The maximum number of chunks waiting to be saved and unloaded before /forge generate pauses to let unloading catch up.")
+                    .translation("forge.configgui.pregenMaxPendingChunks")
+                    .defineInRange("pregenMaxPendingChunks", 4096, 1, Integer.MAX_VALUE);
+
             builder.pop();
         }
     }
@@ -175,6 +188,10 @@ public class ForgeConfig
         public final BooleanValue forgeLightPipelineEnabled;
         public final BooleanValue experimentalForgeLightPipelineEnabled;
 
+        public final BooleanValue parallelModelBakingEnabled;
+
+        public final BooleanValue objModelCacheEnabled;
+
         public final BooleanValue selectiveResourceReloadEnabled;
 
         public final BooleanValue showLoadWarnings;
@@ -216,6 +233,16 @@ public class ForgeConfig
                 .translation("forge.configgui.forgeLightPipelineEnabled")
                 .define("experimentalForgeLightPipelineEnabled", false);
 
+            parallelModelBakingEnabled = builder
+                .comment("EXPERIMENTAL: Bake block and item models on multiple threads. Disable if a mod's custom models fail to bake or render incorrectly.")
+                .translation("forge.configgui.parallelModelBakingEnabled")
+                .define("parallelModelBakingEnabled", false);
+
+            objModelCacheEnabled = builder
+                .comment("EXPERIMENTAL: Cache parsed OBJ models in the objcache folder so later launches can skip parsing them. Disable if changed OBJ models are not picked up.")
+                .translation("forge.configgui.objModelCacheEnabled")
+                .define("objModelCacheEnabled", false);
+
             selectiveResourceReloadEnabled = builder
                 .comment("When enabled, makes specific reload tasks such as language changing quicker to run.")
                 .translation("forge.configgui.selectiveResourceReloadEnabled")
@@ -29,9 +29,11 @@ import net.minecraft.util.concurrent.TickDelayedTask;
 import net.minecraft.world.server.ServerWorld;
 import net.minecraftforge.common.loot.LootModifierManager;
 import net.minecraftforge.common.util.FakePlayerFactory;
+import net.minecraftforge.common.world.PlayerSpatialIndex;
 import net.minecraftforge.event.AddReloadListenerEvent;
 import net.minecraftforge.event.RegisterCommandsEvent;
 import net.minecraftforge.event.entity.EntityJoinWorldEvent;
+import net.minecraftforge.event.entity.living.EntityTeleportEvent;
 import net.minecraftforge.event.entity.player.PlayerEvent;
 import net.minecraftforge.event.world.ChunkEvent;
 import net.minecraftforge.event.world.WorldEvent;
@@ -44,6 +46,7 @@ import net.minecraftforge.event.TickEvent.Phase;
 import net.minecraftforge.event.TickEvent.ServerTickEvent;
 import net.minecraftforge.fml.LogicalSide;
 import net.minecraftforge.fml.LogicalSidedProvider;
+import net.minecraftforge.fml.network.simple.SimpleChannel;
 import net.minecraftforge.server.command.ForgeCommand;
 import net.minecraftforge.server.command.ConfigCommand;
 
@@ -76,18 +79,57 @@ public class ForgeInternalHandler
     public void onDimensionUnload(WorldEvent.Unload event)
     {
         if (event.getWorld() instanceof ServerWorld)
+        {
             FakePlayerFactory.unloadWorld((ServerWorld) event.getWorld());
+            PlayerSpatialIndex.unload((ServerWorld) event.getWorld());
+        }
+    }
+
+    @SubscribeEvent
+    public void onPlayerJoinWorld(EntityJoinWorldEvent event)
+    {
+        if (event.getEntity() instanceof ServerPlayerEntity)
+            PlayerSpatialIndex.invalidate();
+    }
+
+    @SubscribeEvent
+    public void onPlayerTeleport(EntityTeleportEvent event)
+    {
+        if (event.getEntity() instanceof ServerPlayerEntity)
+            PlayerSpatialIndex.invalidate();
+    }
+
+    @SubscribeEvent
+    public void onPlayerLogout(PlayerEvent.PlayerLoggedOutEvent event)
+    {
+        PlayerSpatialIndex.invalidate();
+    }
+
+    @SubscribeEvent
+    public void onPlayerRespawn(PlayerEvent.PlayerRespawnEvent event)
+    {
+        PlayerSpatialIndex.invalidate();
+    }
+
+    @SubscribeEvent
+    public void onPlayerChangedDimension(PlayerEvent.PlayerChangedDimensionEvent event)
+    {
+        PlayerSpatialIndex.invalidate();
     }
 
     @SubscribeEvent
     public void onServerTick(ServerTickEvent event)
     {
         WorldWorkerManager.tick(event.phase == TickEvent.Phase.START);
+        if (event.phase == TickEvent.Phase.END)
+            SimpleChannel.flushAllBatched(LogicalSide.SERVER);
     }
 
     @SubscribeEvent
     public void checkSettings(ClientTickEvent event)
     {
+        if (event.phase == TickEvent.Phase.END)
+            SimpleChannel.flushAllBatched(LogicalSide.CLIENT);
         //if (event.phase == Phase.END)
         //    CloudRenderer.updateCloudSettings();
     }
@@ -111,6 +153,7 @@ public class ForgeInternalHandler
     @SubscribeEvent
     public void playerLogin(PlayerEvent.PlayerLoggedInEvent event)
     {
+        PlayerSpatialIndex.invalidate();
         UsernameCache.setUsername(event.getPlayer().getUUID(), event.getPlayer().getGameProfile().getName());
     }
 
@@ -43,12 +43,14 @@ import net.minecraftforge.fluids.ForgeFlowingFluid;
 import net.minecraftforge.fml.*;
 import net.minecraftforge.fml.config.ModConfig;
 import net.minecraftforge.fml.event.lifecycle.*;
+import net.minecraftforge.fml.event.server.FMLServerStartedEvent;
 import net.minecraftforge.fml.event.server.FMLServerStoppingEvent;
 import net.minecraftforge.fml.javafmlmod.FMLJavaModLoadingContext;
 import net.minecraftforge.fml.loading.FMLEnvironment;
 import net.minecraftforge.fml.loading.progress.StartupMessageManager;
 import net.minecraftforge.network.VanillaPacketSplitter;
 import net.minecraftforge.registries.DeferredRegister;
+import net.minecraftforge.server.command.ChunkPregenWorker;
 import net.minecraftforge.server.command.EnumArgument;
 import net.minecraftforge.server.command.ModIdArgument;
 import net.minecraftforge.registries.ForgeRegistries;
@@ -146,6 +148,7 @@ public class ForgeMod implements WorldPersistenceHooks.WorldPersistenceHook
         modEventBus.addGenericListener(Fluid.class, this::registerFluids);
         modEventBus.register(this);
         ATTRIBUTES.register(modEventBus);
+        MinecraftForge.EVENT_BUS.addListener(this::serverStarted);
         MinecraftForge.EVENT_BUS.addListener(this::serverStopping);
         MinecraftForge.EVENT_BUS.addGenericListener(SoundEvent.class, this::missingSoundMapping);
         ModLoadingContext.get().registerConfig(ModConfig.Type.CLIENT, ForgeConfig.clientSpec);
@@ -188,9 +191,15 @@ public class ForgeMod implements WorldPersistenceHooks.WorldPersistenceHook
             ForgeHooksClient.registerForgeWorldTypeScreens();
     }
 
+    public void serverStarted(FMLServerStartedEvent evt)
+    {
+        ChunkPregenWorker.resume(evt.getServer());
+    }
+
     public void serverStopping(FMLServerStoppingEvent evt)
     {
         WorldWorkerManager.clear();
+        ChunkPregenWorker.clear();
     }
 
     @Override
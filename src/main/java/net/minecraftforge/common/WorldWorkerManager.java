@@ -21,61 +21,109 @@ package net.minecraftforge.common;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Runs background {@link IWorker}s in the time left over at the end of each server tick.
+ *
+ * Workers share the tick using weighted round robin: each worker is given a slice of the
+ * remaining budget proportional to its {@link IWorker#getWeight() weight}, and any time a
+ * worker leaves unused is passed on to the workers after it. The worker served first rotates
+ * every tick so no worker is starved by the ones registered before it.
+ *
+ * The budget is whatever is left of the 50ms tick, but never less than a floor that shrinks
+ * as the average tick time (MSPT) goes over 50ms, so workers back off on a lagging server.
+ */
 public class WorldWorkerManager
 {
-    private static List<IWorker> workers = new ArrayList<IWorker>();
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long MIN_BUDGET = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long LAGGING_MIN_BUDGET = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static List<Entry> workers = new ArrayList<>();
     private static long startTime = -1;
-    private static int index = 0;
+    private static int offset = 0;
+    private static double averageTickTime = TICK_NANOS;
 
     public static void tick(boolean start)
     {
         if (start)
         {
-            startTime = System.currentTimeMillis();
+            startTime = System.nanoTime();
             return;
         }
 
-        index = 0;
-        IWorker task = getNext();
-        if (task == null)
+        long now = System.nanoTime();
+        long tickTime = now - startTime;
+        averageTickTime = averageTickTime * 0.9 + tickTime * 0.1;
+
+        List<Entry> tasks = snapshot();
+        if (tasks.isEmpty())
             return;
 
-        long time = 50 - (System.currentTimeMillis() - startTime);
-        if (time < 10)
-            time = 10; //If ticks are lagging, give us at least 10ms to do something.
-        time += System.currentTimeMillis();
+        long budget = Math.max(TICK_NANOS - tickTime, getMinBudget());
+        long deadline = now + budget;
+        int totalWeight = 0;
+        for (Entry task : tasks)
+            totalWeight += task.weight();
 
-        while (System.currentTimeMillis() < time && task != null)
+        int count = tasks.size();
+        offset = (offset + 1) % count;
+        for (int x = 0; x < count; x++)
         {
-            boolean again = task.doWork();
+            now = System.nanoTime();
+            if (now >= deadline)
+                break;
 
-            if (!task.hasWork())
-            {
-                remove(task);
-                task = getNext();
-            }
-            else if (!again)
-            {
-                task = getNext();
-            }
+            Entry task = tasks.get((offset + x) % count);
+            int weight = task.weight();
+            // Share whatever is left between this and the remaining workers, unused time flows on to the next.
+            long slice = (deadline - now) * weight / totalWeight;
+            totalWeight -= weight;
+            task.run(now + Math.max(slice, 1));
         }
     }
 
+    /**
+     * The least time workers get each tick, shrinking from 10ms towards 1ms as the average tick time goes over 50ms.
+     */
+    private static long getMinBudget()
+    {
+        if (averageTickTime <= TICK_NANOS)
+            return MIN_BUDGET;
+        return Math.max(LAGGING_MIN_BUDGET, (long)(MIN_BUDGET * TICK_NANOS / averageTickTime));
+    }
+
     public static synchronized void addWorker(IWorker worker)
     {
-        workers.add(worker);
+        workers.add(new Entry(worker));
+    }
+
+    private static synchronized List<Entry> snapshot()
+    {
+        workers.removeIf(e -> !e.worker.hasWork());
+        return new ArrayList<>(workers);
     }
 
-    private static synchronized IWorker getNext()
+    /**
+     * @return The time used and work done by every registered worker
+     */
+    public static synchronized List<WorkerStats> getStats()
     {
-        return workers.size() > index ? workers.get(index++) : null;
+        ImmutableList.Builder<WorkerStats> ret = ImmutableList.builder();
+        for (Entry entry : workers)
+            ret.add(new WorkerStats(entry.worker, entry.timeUsed, entry.workDone, entry.lastTimeUsed));
+        return ret.build();
     }
 
-    private static synchronized void remove(IWorker worker)
+    /**
+     * @return The moving average of the server tick time in milliseconds, not counting time spent in workers
+     */
+    public static double getAverageTickTime()
     {
-        workers.remove(worker);
-        index--;
+        return averageTickTime / TimeUnit.MILLISECONDS.toNanos(1);
     }
 
     //Internal only, used to clear everything when the server shuts down.
@@ -84,6 +132,85 @@ public class WorldWorkerManager
         workers.clear();
     }
 
+    private static class Entry
+    {
+        private final IWorker worker;
+        private long timeUsed;
+        private long workDone;
+        private long lastTimeUsed;
+
+        private Entry(IWorker worker)
+        {
+            this.worker = worker;
+        }
+
+        private int weight()
+        {
+            return Math.max(1, worker.getWeight());
+        }
+
+        private void run(long deadline)
+        {
+            long start = System.nanoTime();
+            long now = start;
+            while (now < deadline && worker.hasWork())
+            {
+                boolean again = worker.doWork();
+                workDone++;
+                now = System.nanoTime();
+                if (!again)
+                    break;
+            }
+            lastTimeUsed = now - start;
+            timeUsed += lastTimeUsed;
+        }
+    }
+
+    public static class WorkerStats
+    {
+        private final IWorker worker;
+        private final long timeUsed;
+        private final long workDone;
+        private final long lastTimeUsed;
+
+        private WorkerStats(IWorker worker, long timeUsed, long workDone, long lastTimeUsed)
+        {
+            this.worker = worker;
+            this.timeUsed = timeUsed;
+            this.workDone = workDone;
+            this.lastTimeUsed = lastTimeUsed;
+        }
+
+        public IWorker getWorker()
+        {
+            return worker;
+        }
+
+        /**
+         * @return The total time spent in this worker, in nanoseconds
+         */
+        public long getTimeUsed()
+        {
+            return timeUsed;
+        }
+
+        /**
+         * @return The number of times {@link IWorker#doWork()} has been called
+         */
+        public long getWorkDone()
+        {
+            return workDone;
+        }
+
+        /**
+         * @return The time spent in this worker during the last tick it ran, in nanoseconds
+         */
+        public long getLastTimeUsed()
+        {
+            return lastTimeUsed;
+        }
+    }
+
     public static interface IWorker
     {
         boolean hasWork();
@@ -93,5 +220,21 @@ public class WorldWorkerManager
          * Returning false will skip calling this worker until next tick.
          */
         boolean doWork();
+
+        /**
+         * The share of each tick's budget this worker gets relative to the other workers, defaults to 1.
+         */
+        default int getWeight()
+        {
+            return 1;
+        }
+
+        /**
+         * A name identifying this worker in stats output, defaults to the class name.
+         */
+        default String getName()
+        {
+            return getClass().getName();
+        }
     }
 }
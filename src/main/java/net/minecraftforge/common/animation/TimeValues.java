@@ -20,6 +20,9 @@
 package net.minecraftforge.common.animation;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.regex.Pattern;
 
 import net.minecraft.util.IStringSerializable;
@@ -33,6 +36,12 @@ import com.google.gson.TypeAdapterFactory;
 import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
+import it.unimi.dsi.fastutil.floats.Float2IntMap;
+import it.unimi.dsi.fastutil.floats.Float2IntOpenHashMap;
+import it.unimi.dsi.fastutil.floats.FloatArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
 
 import javax.annotation.Nullable;
 
@@ -155,20 +164,25 @@ public final class TimeValues
             float ret = input;
             for(int i = 0; i < operators.length(); i++)
             {
-                float arg = args.get(i).apply(input);
-                switch(operators.charAt(i))
-                {
-                    case '+': ret += arg; break;
-                    case '-': ret -= arg; break;
-                    case '*': ret *= arg; break;
-                    case '/': ret /= arg; break;
-                    case 'm': ret = Math.min(ret, arg); break;
-                    case 'M': ret = Math.max(ret, arg); break;
-                    case 'r': ret = (float)Math.floor(ret / arg) * arg; break;
-                    case 'R': ret = (float)Math.ceil(ret / arg) * arg; break;
-                    case 'f': ret -= Math.floor(ret / arg) * arg; break;
-                    case 'F': ret = (float)Math.ceil(ret / arg) * arg - ret; break;
-                }
+                ret = applyOperator(operators.charAt(i), ret, args.get(i).apply(input));
+            }
+            return ret;
+        }
+
+        private static float applyOperator(char operator, float ret, float arg)
+        {
+            switch(operator)
+            {
+                case '+': ret += arg; break;
+                case '-': ret -= arg; break;
+                case '*': ret *= arg; break;
+                case '/': ret /= arg; break;
+                case 'm': ret = Math.min(ret, arg); break;
+                case 'M': ret = Math.max(ret, arg); break;
+                case 'r': ret = (float)Math.floor(ret / arg) * arg; break;
+                case 'R': ret = (float)Math.ceil(ret / arg) * arg; break;
+                case 'f': ret -= Math.floor(ret / arg) * arg; break;
+                case 'F': ret = (float)Math.ceil(ret / arg) * arg - ret; break;
             }
             return ret;
         }
@@ -294,6 +308,277 @@ public final class TimeValues
         }
     }
 
+    /**
+     * Flattens a value tree into a single array-backed evaluator.
+     * Parameters are resolved once, constant subtrees are folded, and {@link VariableValue}s and custom values are kept as leaves that are read on every call.
+     */
+    public static ITimeValue compile(ITimeValue value)
+    {
+        ValueCompiler compiler = new ValueCompiler();
+        int output = compiler.add(value, compiler.input());
+        if(output == compiler.input())
+        {
+            return IdentityValue.INSTANCE;
+        }
+        if(compiler.isConstant(output))
+        {
+            return new ConstValue(compiler.getConstant(output));
+        }
+        return new CompiledValue(compiler.build(), output);
+    }
+
+    /**
+     * Result of {@link #compile(ITimeValue)}.
+     */
+    public static final class CompiledValue implements ITimeValue
+    {
+        private final CompiledValues values;
+        private final int output;
+
+        private CompiledValue(CompiledValues values, int output)
+        {
+            this.values = values;
+            this.output = output;
+        }
+
+        @Override
+        public float apply(float input)
+        {
+            return values.evaluate(input)[output];
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hashCode(values, output);
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+                return true;
+            if (obj == null)
+                return false;
+            if (getClass() != obj.getClass())
+                return false;
+            CompiledValue other = (CompiledValue) obj;
+            return output == other.output && values.equals(other.values);
+        }
+    }
+
+    /**
+     * A set of values compiled together, all computed from one input by a single pass over a flat instruction array.
+     * Each value is read from the register {@link ValueCompiler#add} returned for it.
+     */
+    public static final class CompiledValues
+    {
+        private static final int COPY = 0;
+        private static final int LEAF = 1;
+        private static final int OPERATOR = 2;
+
+        // 4 ints per instruction: opcode, target register, source register, leaf index or operator
+        private final int[] code;
+        // Initial register contents, constants already filled in
+        private final float[] registers;
+        private final ITimeValue[] leaves;
+
+        private CompiledValues(int[] code, float[] registers, ITimeValue[] leaves)
+        {
+            this.code = code;
+            this.registers = registers;
+            this.leaves = leaves;
+        }
+
+        /**
+         * @return the registers after running the program on the input
+         */
+        public float[] evaluate(float input)
+        {
+            return evaluate(input, new float[registers.length]);
+        }
+
+        /**
+         * Same as {@link #evaluate(float)}, but runs in the given array if it is large enough, so callers evaluating often can reuse it.
+         */
+        public float[] evaluate(float input, float[] scratch)
+        {
+            float[] r = scratch.length >= registers.length ? scratch : new float[registers.length];
+            System.arraycopy(registers, 0, r, 0, registers.length);
+            r[0] = input;
+            for(int pc = 0; pc < code.length; pc += 4)
+            {
+                int target = code[pc + 1];
+                int source = code[pc + 2];
+                switch(code[pc])
+                {
+                    case COPY: r[target] = r[source]; break;
+                    case LEAF: r[target] = leaves[code[pc + 3]].apply(r[source]); break;
+                    case OPERATOR: r[target] = SimpleExprValue.applyOperator((char)code[pc + 3], r[target], r[source]); break;
+                }
+            }
+            return r;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hashCode(Arrays.hashCode(code), Arrays.hashCode(registers), Arrays.hashCode(leaves));
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+                return true;
+            if (obj == null)
+                return false;
+            if (getClass() != obj.getClass())
+                return false;
+            CompiledValues other = (CompiledValues) obj;
+            return Arrays.equals(code, other.code) && Arrays.equals(registers, other.registers) && Arrays.equals(leaves, other.leaves);
+        }
+    }
+
+    /**
+     * Builds {@link CompiledValues}. Register 0 holds the input, every {@link #add} call returns the register holding the result.
+     */
+    public static final class ValueCompiler
+    {
+        private final IntArrayList code = new IntArrayList();
+        private final FloatArrayList registers = new FloatArrayList();
+        private final List<ITimeValue> leaves = new ArrayList<>();
+        private final Float2IntMap constantRegisters = new Float2IntOpenHashMap();
+        private final IntSet constants = new IntOpenHashSet();
+
+        public ValueCompiler()
+        {
+            registers.add(0);
+            constantRegisters.defaultReturnValue(-1);
+        }
+
+        public int input()
+        {
+            return 0;
+        }
+
+        public boolean isConstant(int register)
+        {
+            return constants.contains(register);
+        }
+
+        public float getConstant(int register)
+        {
+            return registers.getFloat(register);
+        }
+
+        public int constant(float value)
+        {
+            int register = constantRegisters.get(value);
+            if(register < 0)
+            {
+                register = newRegister(value);
+                constantRegisters.put(value, register);
+                constants.add(register);
+            }
+            return register;
+        }
+
+        /**
+         * Adds the value applied to the given register.
+         * @return the register the result is stored in
+         */
+        public int add(ITimeValue value, int input)
+        {
+            if(value instanceof IdentityValue)
+            {
+                return input;
+            }
+            if(value instanceof ConstValue)
+            {
+                return constant(((ConstValue)value).output);
+            }
+            if(value instanceof CompositionValue)
+            {
+                CompositionValue composition = (CompositionValue)value;
+                return add(composition.g, add(composition.f, input));
+            }
+            if(value instanceof ParameterValue)
+            {
+                ParameterValue parameter = (ParameterValue)value;
+                try
+                {
+                    parameter.resolve();
+                }
+                catch(IllegalArgumentException e)
+                {
+                    // Keep failing on use, like the uncompiled value
+                    return leaf(value, input);
+                }
+                return add(parameter.parameter, input);
+            }
+            if(value instanceof SimpleExprValue && ((SimpleExprValue)value).args.size() >= ((SimpleExprValue)value).operators.length())
+            {
+                return addExpression((SimpleExprValue)value, input);
+            }
+            return leaf(value, input);
+        }
+
+        private int addExpression(SimpleExprValue expr, int input)
+        {
+            int[] args = new int[expr.operators.length()];
+            boolean constant = isConstant(input);
+            for(int i = 0; i < args.length; i++)
+            {
+                args[i] = add(expr.args.get(i), input);
+                constant &= isConstant(args[i]);
+            }
+            if(constant)
+            {
+                float ret = getConstant(input);
+                for(int i = 0; i < args.length; i++)
+                {
+                    ret = SimpleExprValue.applyOperator(expr.operators.charAt(i), ret, getConstant(args[i]));
+                }
+                return constant(ret);
+            }
+            int ret = newRegister(0);
+            emit(CompiledValues.COPY, ret, input, 0);
+            for(int i = 0; i < args.length; i++)
+            {
+                emit(CompiledValues.OPERATOR, ret, args[i], expr.operators.charAt(i));
+            }
+            return ret;
+        }
+
+        private int leaf(ITimeValue value, int input)
+        {
+            int ret = newRegister(0);
+            emit(CompiledValues.LEAF, ret, input, leaves.size());
+            leaves.add(value);
+            return ret;
+        }
+
+        private int newRegister(float initial)
+        {
+            registers.add(initial);
+            return registers.size() - 1;
+        }
+
+        private void emit(int op, int target, int source, int extra)
+        {
+            code.add(op);
+            code.add(target);
+            code.add(source);
+            code.add(extra);
+        }
+
+        public CompiledValues build()
+        {
+            return new CompiledValues(code.toIntArray(), registers.toFloatArray(), leaves.toArray(new ITimeValue[0]));
+        }
+    }
+
     public static enum CommonTimeValueTypeAdapterFactory implements TypeAdapterFactory
     {
         INSTANCE;
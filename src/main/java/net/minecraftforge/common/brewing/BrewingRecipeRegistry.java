@@ -22,13 +22,32 @@ package net.minecraftforge.common.brewing;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+
+import javax.annotation.Nullable;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.crafting.Ingredient;
+import net.minecraft.item.crafting.RecipeItemHelper;
+import net.minecraft.nbt.CompoundNBT;
 import net.minecraft.util.NonNullList;
+import net.minecraftforge.common.crafting.CompoundIngredient;
+import net.minecraftforge.common.crafting.NBTIngredient;
 
 public class BrewingRecipeRegistry {
 
     private static List<IBrewingRecipe> recipes = new ArrayList<IBrewingRecipe>();
+    private static volatile Index index;
 
     static
     {
@@ -60,7 +79,20 @@ public class BrewingRecipeRegistry {
      */
     public static boolean addRecipe(IBrewingRecipe recipe)
     {
-        return recipes.add(recipe);
+        boolean ret = recipes.add(recipe);
+        index = null;
+        return ret;
+    }
+
+    /**
+     * Recipes can only ever be added, so an index built from as many recipes as there are now is still current.
+     */
+    private static Index index()
+    {
+        Index ret = index;
+        if (ret == null || ret.recipes.length != recipes.size())
+            index = ret = new Index(recipes);
+        return ret;
     }
 
     /**
@@ -72,15 +104,7 @@ public class BrewingRecipeRegistry {
         if (input.isEmpty() || input.getCount() != 1) return ItemStack.EMPTY;
         if (ingredient.isEmpty()) return ItemStack.EMPTY;
 
-        for (IBrewingRecipe recipe : recipes)
-        {
-            ItemStack output = recipe.getOutput(input, ingredient);
-            if (!output.isEmpty())
-            {
-                return output;
-            }
-        }
-        return ItemStack.EMPTY;
+        return index().getOutput(input, ingredient);
     }
 
     /**
@@ -135,14 +159,7 @@ public class BrewingRecipeRegistry {
     {
         if (stack.isEmpty()) return false;
 
-        for (IBrewingRecipe recipe : recipes)
-        {
-            if (recipe.isIngredient(stack))
-            {
-                return true;
-            }
-        }
-        return false;
+        return index().isIngredient(stack);
     }
 
     /**
@@ -153,14 +170,7 @@ public class BrewingRecipeRegistry {
     {
         if (stack.getCount() != 1) return false;
 
-        for (IBrewingRecipe recipe : recipes)
-        {
-            if (recipe.isInput(stack))
-            {
-                return true;
-            }
-        }
-        return false;
+        return index().isInput(stack);
     }
 
     /**
@@ -170,4 +180,230 @@ public class BrewingRecipeRegistry {
     {
         return Collections.unmodifiableList(recipes);
     }
+
+    /**
+     * Plain {@link BrewingRecipe}s are bucketed by the items their input and ingredient accept. Any other recipe
+     * can look at anything, so its answers are cached per item and NBT instead, which covers the potions and
+     * ingredients that hoppers keep offering to brewing stands. Recipes are still consulted in registration order.
+     */
+    private static class Index
+    {
+        private static final int[] NONE = new int[0];
+        private static final Result NO_RESULT = new Result(Integer.MAX_VALUE, ItemStack.EMPTY);
+
+        private final IBrewingRecipe[] recipes;
+        private final Int2ObjectOpenHashMap<int[]> byIngredient = new Int2ObjectOpenHashMap<>();
+        private final Int2ObjectOpenHashMap<int[]> byInput = new Int2ObjectOpenHashMap<>();
+        private final int[] unindexed;
+        private final Cache<Key, Result> outputs = CacheBuilder.newBuilder().maximumSize(1024).build();
+        private final Cache<Key, Boolean> ingredients = CacheBuilder.newBuilder().maximumSize(256).build();
+        private final Cache<Key, Boolean> inputs = CacheBuilder.newBuilder().maximumSize(256).build();
+
+        private Index(List<IBrewingRecipe> recipes)
+        {
+            this.recipes = recipes.toArray(new IBrewingRecipe[0]);
+
+            Int2ObjectOpenHashMap<IntArrayList> ingredientLists = new Int2ObjectOpenHashMap<>();
+            Int2ObjectOpenHashMap<IntArrayList> inputLists = new Int2ObjectOpenHashMap<>();
+            IntArrayList unindexed = new IntArrayList();
+            for (int ordinal = 0; ordinal < this.recipes.length; ordinal++)
+            {
+                IBrewingRecipe recipe = this.recipes[ordinal];
+                IntSet ingredientIds = recipe.getClass() == BrewingRecipe.class ? itemIds(((BrewingRecipe)recipe).getIngredient()) : null;
+                IntSet inputIds = recipe.getClass() == BrewingRecipe.class ? itemIds(((BrewingRecipe)recipe).getInput()) : null;
+                if (ingredientIds == null || inputIds == null)
+                {
+                    unindexed.add(ordinal);
+                    continue;
+                }
+                bucket(ingredientLists, ingredientIds, ordinal);
+                bucket(inputLists, inputIds, ordinal);
+            }
+            for (Int2ObjectMap.Entry<IntArrayList> e : ingredientLists.int2ObjectEntrySet())
+                byIngredient.put(e.getIntKey(), e.getValue().toIntArray());
+            for (Int2ObjectMap.Entry<IntArrayList> e : inputLists.int2ObjectEntrySet())
+                byInput.put(e.getIntKey(), e.getValue().toIntArray());
+            this.unindexed = unindexed.toIntArray();
+        }
+
+        private ItemStack getOutput(ItemStack input, ItemStack ingredient)
+        {
+            Result result = NO_RESULT;
+            if (unindexed.length > 0)
+            {
+                Key key = new Key(input, ingredient);
+                result = outputs.getIfPresent(key);
+                if (result == null)
+                {
+                    result = NO_RESULT;
+                    for (int ordinal : unindexed)
+                    {
+                        ItemStack output = recipes[ordinal].getOutput(input, ingredient);
+                        if (!output.isEmpty())
+                        {
+                            result = new Result(ordinal, output.copy());
+                            break;
+                        }
+                    }
+                    outputs.put(key.copy(), result);
+                }
+            }
+
+            // Indexed recipes registered before the first unindexed one that produced something still take precedence
+            for (int ordinal : bucket(byIngredient, ingredient))
+            {
+                if (ordinal > result.ordinal)
+                    break;
+                ItemStack output = recipes[ordinal].getOutput(input, ingredient);
+                if (!output.isEmpty())
+                    return output;
+            }
+            return result.output.copy();
+        }
+
+        private boolean isIngredient(ItemStack stack)
+        {
+            for (int ordinal : bucket(byIngredient, stack))
+                if (recipes[ordinal].isIngredient(stack))
+                    return true;
+            return anyUnindexed(ingredients, stack, false);
+        }
+
+        private boolean isInput(ItemStack stack)
+        {
+            for (int ordinal : bucket(byInput, stack))
+                if (recipes[ordinal].isInput(stack))
+                    return true;
+            return anyUnindexed(inputs, stack, true);
+        }
+
+        private boolean anyUnindexed(Cache<Key, Boolean> cache, ItemStack stack, boolean input)
+        {
+            if (unindexed.length == 0)
+                return false;
+
+            Key key = new Key(stack, ItemStack.EMPTY);
+            Boolean ret = cache.getIfPresent(key);
+            if (ret == null)
+            {
+                ret = false;
+                for (int ordinal : unindexed)
+                {
+                    if (input ? recipes[ordinal].isInput(stack) : recipes[ordinal].isIngredient(stack))
+                    {
+                        ret = true;
+                        break;
+                    }
+                }
+                cache.put(key.copy(), ret);
+            }
+            return ret;
+        }
+
+        private static int[] bucket(Int2ObjectOpenHashMap<int[]> buckets, ItemStack stack)
+        {
+            int[] ret = buckets.get(RecipeItemHelper.getStackingIndex(stack));
+            return ret == null ? NONE : ret;
+        }
+
+        private static void bucket(Int2ObjectOpenHashMap<IntArrayList> buckets, IntSet ids, int ordinal)
+        {
+            for (IntIterator itr = ids.iterator(); itr.hasNext();)
+            {
+                int id = itr.nextInt();
+                IntArrayList list = buckets.get(id);
+                if (list == null)
+                    buckets.put(id, list = new IntArrayList());
+                list.add(ordinal);
+            }
+        }
+
+        /**
+         * The items the ingredient could ever accept, or null if it's a custom ingredient that may accept anything.
+         */
+        @Nullable
+        private static IntSet itemIds(Ingredient ingredient)
+        {
+            IntSet ret = new IntOpenHashSet();
+            return collectItemIds(ingredient, ret) ? ret : null;
+        }
+
+        private static boolean collectItemIds(Ingredient ingredient, IntSet ids)
+        {
+            if (ingredient.getClass() == CompoundIngredient.class)
+            {
+                for (Ingredient child : ((CompoundIngredient)ingredient).getChildren())
+                    if (!collectItemIds(child, ids))
+                        return false;
+                return true;
+            }
+            if (!ingredient.isVanilla() && ingredient.getClass() != NBTIngredient.class)
+                return false;
+
+            ids.addAll(ingredient.getStackingIds());
+            return true;
+        }
+    }
+
+    private static class Result
+    {
+        private final int ordinal;
+        private final ItemStack output;
+
+        private Result(int ordinal, ItemStack output)
+        {
+            this.ordinal = ordinal;
+            this.output = output;
+        }
+    }
+
+    private static class Key
+    {
+        private final Item first;
+        @Nullable
+        private final CompoundNBT firstTag;
+        private final Item second;
+        @Nullable
+        private final CompoundNBT secondTag;
+        private final int hash;
+
+        private Key(ItemStack first, ItemStack second)
+        {
+            this(first.getItem(), first.getTag(), second.getItem(), second.getTag());
+        }
+
+        private Key(Item first, @Nullable CompoundNBT firstTag, Item second, @Nullable CompoundNBT secondTag)
+        {
+            this.first = first;
+            this.firstTag = firstTag;
+            this.second = second;
+            this.secondTag = secondTag;
+            this.hash = Objects.hash(first, firstTag, second, secondTag);
+        }
+
+        /**
+         * Lookup keys share the tags of the stacks they were made from, stored keys must not.
+         */
+        private Key copy()
+        {
+            return new Key(first, firstTag == null ? null : firstTag.copy(), second, secondTag == null ? null : secondTag.copy());
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            Key other = (Key)obj;
+            return hash == other.hash && first == other.first && second == other.second && Objects.equals(firstTag, other.firstTag) && Objects.equals(secondTag, other.secondTag);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+    }
 }
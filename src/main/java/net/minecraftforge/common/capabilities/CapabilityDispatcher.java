@@ -22,8 +22,11 @@ package net.minecraftforge.common.capabilities;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import com.google.common.collect.Lists;
 
@@ -44,6 +47,12 @@ import net.minecraftforge.common.util.LazyOptional;
  *
  * Internally the handlers are baked into arrays for fast iteration.
  * The ResourceLocations will be used for the NBT Key when serializing.
+ *
+ * Providers implementing {@link IStaticCapabilityProvider} are only asked for a
+ * Capability and side until they first fail to answer it, every other provider is
+ * always asked, in order. The remembered misses are dropped whenever the owning
+ * {@link CapabilityProvider} invalidates or revives its capabilities, or when
+ * {@link #invalidateCache()} is called.
  */
 @ParametersAreNonnullByDefault
 @MethodsReturnNonnullByDefault
@@ -53,6 +62,11 @@ public final class CapabilityDispatcher implements INBTSerializable<CompoundNBT>
     private INBTSerializable<INBT>[] writers;
     private String[] names;
     private final List<Runnable> listeners;
+    private final boolean anyStatic;
+    // Per Capability and side, the providers still worth asking, or null if not looked up yet.
+    private final Map<Capability<?>, AtomicReferenceArray<int[]>> index = new ConcurrentHashMap<>();
+
+    private static final int SIDES = Direction.values().length + 1; // Last slot is the null side
 
     public CapabilityDispatcher(Map<ResourceLocation, ICapabilityProvider> list, List<Runnable> listeners)
     {
@@ -91,31 +105,90 @@ public final class CapabilityDispatcher implements INBTSerializable<CompoundNBT>
         caps = lstCaps.toArray(new ICapabilityProvider[lstCaps.size()]);
         writers = lstWriters.toArray(new INBTSerializable[lstWriters.size()]);
         names = lstNames.toArray(new String[lstNames.size()]);
+        boolean anyStatic = false;
+        for (ICapabilityProvider prov : caps)
+            anyStatic |= prov instanceof IStaticCapabilityProvider;
+        this.anyStatic = anyStatic;
     }
 
 
     @Override
     public <T> LazyOptional<T> getCapability(Capability<T> cap, @Nullable Direction side)
     {
-        for (ICapabilityProvider c : caps)
+        if (!anyStatic)
         {
-            LazyOptional<T> ret = c.getCapability(cap, side);
-            //noinspection ConstantConditions
-            if (ret == null)
+            for (ICapabilityProvider c : caps)
             {
-                throw new RuntimeException(
-                        String.format(
-                                "Provider %s.getCapability() returned null; return LazyOptional.empty() instead!",
-                                c.getClass().getTypeName()
-                        )
-                );
+                LazyOptional<T> ret = query(c, cap, side);
+                if (ret.isPresent())
+                {
+                    return ret;
+                }
             }
-            if (ret.isPresent())
+            return LazyOptional.empty();
+        }
+
+        final AtomicReferenceArray<int[]> slots = index.computeIfAbsent(cap, k -> new AtomicReferenceArray<>(SIDES));
+        final int slot = side == null ? SIDES - 1 : side.ordinal();
+        final int[] candidates = slots.get(slot);
+        if (candidates != null)
+        {
+            for (int x : candidates)
+            {
+                LazyOptional<T> ret = query(caps[x], cap, side);
+                if (ret.isPresent())
+                {
+                    return ret;
+                }
+            }
+            return LazyOptional.empty();
+        }
+
+        // First lookup: ask in order, dropping the static providers that had nothing to offer.
+        // Providers after the one that answered were not asked, so they are kept.
+        LazyOptional<T> found = LazyOptional.empty();
+        int[] keep = new int[caps.length];
+        int kept = 0;
+        for (int x = 0; x < caps.length; x++)
+        {
+            if (!found.isPresent())
             {
-                return ret;
+                LazyOptional<T> ret = query(caps[x], cap, side);
+                if (!ret.isPresent() && caps[x] instanceof IStaticCapabilityProvider)
+                {
+                    continue;
+                }
+                found = ret;
             }
+            keep[kept++] = x;
         }
-        return LazyOptional.empty();
+        slots.set(slot, Arrays.copyOf(keep, kept));
+        return found;
+    }
+
+    private static <T> LazyOptional<T> query(ICapabilityProvider c, Capability<T> cap, @Nullable Direction side)
+    {
+        LazyOptional<T> ret = c.getCapability(cap, side);
+        //noinspection ConstantConditions
+        if (ret == null)
+        {
+            throw new RuntimeException(
+                    String.format(
+                            "Provider %s.getCapability() returned null; return LazyOptional.empty() instead!",
+                            c.getClass().getTypeName()
+                    )
+            );
+        }
+        return ret;
+    }
+
+    /**
+     * Forgets the remembered misses of every {@link IStaticCapabilityProvider}, so they are asked again.
+     * Call this if such a provider starts exposing a capability while its owner stays valid.
+     */
+    public void invalidateCache()
+    {
+        this.index.clear();
     }
 
     @Override
@@ -150,6 +223,7 @@ public final class CapabilityDispatcher implements INBTSerializable<CompoundNBT>
 
     public void invalidate()
     {
+        this.invalidateCache();
         this.listeners.forEach(Runnable::run);
     }
 }
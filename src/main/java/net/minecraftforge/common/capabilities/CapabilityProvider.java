@@ -108,6 +108,9 @@ public abstract class CapabilityProvider<B extends CapabilityProvider<B>> implem
     protected void reviveCaps()
     {
         this.valid = true; //Stupid players don't copy the entity when transporting across worlds.
+        final CapabilityDispatcher disp = getCapabilities();
+        if (disp != null)
+            disp.invalidateCache();
     }
 
     @Override
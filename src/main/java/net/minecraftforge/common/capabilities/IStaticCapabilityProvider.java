@@ -0,0 +1,35 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2021.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.common.capabilities;
+
+/**
+ * Marks a provider whose set of exposed capabilities never changes while its owner's capabilities stay valid.
+ *
+ * {@link CapabilityDispatcher} remembers when such a provider does not answer a Capability and side, and stops
+ * asking it until the owner invalidates or revives its capabilities or {@link CapabilityDispatcher#invalidateCache()}
+ * is called. Providers that only expose a capability in some states (NBT, upgrades, block state) must not implement this.
+ *
+ * Forge's item fluid handler templates, {@link net.minecraftforge.fluids.capability.wrappers.FluidBucketWrapper} and
+ * {@link net.minecraftforge.common.model.animation.CapabilityAnimation.DefaultItemAnimationCapabilityProvider} implement it,
+ * subclasses overriding {@code getCapability} must keep answering the same capabilities.
+ */
+public interface IStaticCapabilityProvider extends ICapabilityProvider
+{
+}
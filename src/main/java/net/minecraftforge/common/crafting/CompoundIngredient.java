@@ -19,6 +19,7 @@
 
 package net.minecraftforge.common.crafting;
 
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -36,9 +37,11 @@ import com.google.gson.JsonSyntaxException;
 
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntComparators;
+import it.unimi.dsi.fastutil.ints.IntIterator;
 import it.unimi.dsi.fastutil.ints.IntList;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.crafting.Ingredient;
+import net.minecraft.item.crafting.RecipeItemHelper;
 import net.minecraft.network.PacketBuffer;
 
 public class CompoundIngredient extends Ingredient
@@ -46,13 +49,27 @@ public class CompoundIngredient extends Ingredient
     private List<Ingredient> children;
     private ItemStack[] stacks;
     private IntList itemIds;
+    private BitSet itemFilter;
     private final boolean isSimple;
+    private final boolean itemBounded;
 
     protected CompoundIngredient(List<Ingredient> children)
     {
         super(Stream.of());
         this.children = Collections.unmodifiableList(children);
         this.isSimple = children.stream().allMatch(Ingredient::isSimple);
+        this.itemBounded = children.stream().allMatch(CompoundIngredient::isItemBounded);
+    }
+
+    /**
+     * Whether the ingredient can only ever accept items listed in its stacking ids, so those ids can be used to
+     * reject stacks before testing. Custom ingredients may accept anything, so only our own types are trusted.
+     */
+    private static boolean isItemBounded(Ingredient ingredient)
+    {
+        if (ingredient.getClass() == CompoundIngredient.class)
+            return ((CompoundIngredient)ingredient).itemBounded;
+        return ingredient.isVanilla() || ingredient.getClass() == NBTIngredient.class;
     }
 
     @Override
@@ -92,13 +109,33 @@ public class CompoundIngredient extends Ingredient
         if (target == null)
             return false;
 
-        return children.stream().anyMatch(c -> c.test(target));
+        if (itemBounded && !target.isEmpty())
+        {
+            BitSet filter = this.itemFilter;
+            if (filter == null)
+            {
+                filter = new BitSet();
+                for (IntIterator itr = getStackingIds().iterator(); itr.hasNext();)
+                    filter.set(itr.nextInt());
+                this.itemFilter = filter;
+            }
+            if (!filter.get(RecipeItemHelper.getStackingIndex(target)))
+                return false;
+        }
+
+        for (Ingredient child : children)
+        {
+            if (child.test(target))
+                return true;
+        }
+        return false;
     }
 
     @Override
     protected void invalidate()
     {
         this.itemIds = null;
+        this.itemFilter = null;
         this.stacks = null;
         //Shouldn't need to invalidate children as this is only called form invalidateAll..
     }
@@ -19,6 +19,7 @@
 
 package net.minecraftforge.common.crafting;
 
+import java.util.Optional;
 import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
@@ -28,11 +29,15 @@ import com.google.gson.JsonObject;
 
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.crafting.Ingredient;
+import net.minecraft.nbt.CompoundNBT;
 import net.minecraft.network.PacketBuffer;
 
 public class NBTIngredient extends Ingredient
 {
     private final ItemStack stack;
+    @Nullable
+    private Optional<CompoundNBT> shareTag;
+
     protected NBTIngredient(ItemStack stack)
     {
         super(Stream.of(new Ingredient.SingleItemList(stack)));
@@ -45,7 +50,24 @@ public class NBTIngredient extends Ingredient
         if (input == null)
             return false;
         //Can't use areItemStacksEqualUsingNBTShareTag because it compares stack size as well
-        return this.stack.getItem() == input.getItem() && this.stack.getDamageValue() == input.getDamageValue() && this.stack.areShareTagsEqual(input);
+        if (this.stack.getItem() != input.getItem() || this.stack.getDamageValue() != input.getDamageValue())
+            return false;
+
+        //Same as areShareTagsEqual, but our side is only computed once and differently sized tags are rejected before walking them
+        Optional<CompoundNBT> shareTag = this.shareTag;
+        if (shareTag == null)
+            this.shareTag = shareTag = Optional.ofNullable(this.stack.getShareTag());
+        CompoundNBT other = input.getShareTag();
+        if (!shareTag.isPresent() || other == null)
+            return !shareTag.isPresent() && other == null;
+        return shareTag.get().size() == other.size() && shareTag.get().equals(other);
+    }
+
+    @Override
+    protected void invalidate()
+    {
+        super.invalidate();
+        this.shareTag = null;
     }
 
     @Override
@@ -0,0 +1,269 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2021.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.common.crafting;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.MapMaker;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArraySet;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import net.minecraft.inventory.IInventory;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.item.crafting.IRecipeType;
+import net.minecraft.item.crafting.Ingredient;
+import net.minecraft.item.crafting.RecipeItemHelper;
+import net.minecraft.item.crafting.ShapedRecipe;
+import net.minecraft.item.crafting.ShapelessRecipe;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.world.World;
+
+/**
+ * Reverse index from item stacking ids to the crafting recipes that could accept them, used by
+ * {@link net.minecraft.item.crafting.RecipeManager#getRecipeFor} instead of testing every recipe of the type.
+ *
+ * Only plain {@link ShapedRecipe}s and {@link ShapelessRecipe}s made of vanilla, {@link CompoundIngredient} and
+ * {@link NBTIngredient} ingredients are indexed, as those only match a grid when every non empty slot holds one of
+ * their items. Everything else is tested for every grid, in its original position, so the first match is the same
+ * one the linear scan would have found.
+ *
+ * The index is rebuilt lazily whenever the recipe manager swaps in a new recipe map, which happens on every reload
+ * and recipe sync.
+ */
+public class RecipeIndex
+{
+    private volatile Index index;
+
+    public <C extends IInventory, T extends IRecipe<C>> Optional<T> getRecipeFor(Map<ResourceLocation, IRecipe<C>> recipes, IRecipeType<T> type, C inv, World world)
+    {
+        Index index = this.index;
+        if (index == null || index.source != recipes)
+            this.index = index = new Index(recipes);
+        return index.find(type, inv, world);
+    }
+
+    private static class Index
+    {
+        private static final int[] NONE = new int[0];
+        private static final int NO_MATCH = -1;
+
+        private final Map<ResourceLocation, ? extends IRecipe<?>> source;
+        private final IRecipe<?>[] recipes;
+        private final Int2ObjectOpenHashMap<int[]> postings = new Int2ObjectOpenHashMap<>();
+        private final int[] unindexed;
+        // Recipes whose result only depends on which item sits in which slot, never on tags, counts or the world
+        private final BitSet itemDetermined = new BitSet();
+        private final ConcurrentMap<IInventory, LastMatch> lastMatches = new MapMaker().weakKeys().makeMap();
+
+        private Index(Map<ResourceLocation, ? extends IRecipe<?>> source)
+        {
+            this.source = source;
+            this.recipes = source.values().toArray(new IRecipe<?>[0]);
+
+            Int2ObjectOpenHashMap<IntArrayList> lists = new Int2ObjectOpenHashMap<>();
+            IntArrayList unindexed = new IntArrayList();
+            for (int ordinal = 0; ordinal < recipes.length; ordinal++)
+            {
+                IntSet ids = new IntOpenHashSet();
+                Boolean determined = collectItemIds(recipes[ordinal], ids);
+                if (determined == null)
+                {
+                    unindexed.add(ordinal);
+                    continue;
+                }
+                if (determined)
+                    itemDetermined.set(ordinal);
+                for (IntIterator itr = ids.iterator(); itr.hasNext();)
+                {
+                    int id = itr.nextInt();
+                    IntArrayList list = lists.get(id);
+                    if (list == null)
+                        lists.put(id, list = new IntArrayList());
+                    list.add(ordinal);
+                }
+            }
+            for (Int2ObjectMap.Entry<IntArrayList> e : lists.int2ObjectEntrySet())
+                postings.put(e.getIntKey(), e.getValue().toIntArray());
+            this.unindexed = unindexed.toIntArray();
+        }
+
+        @SuppressWarnings("unchecked")
+        private <C extends IInventory, T extends IRecipe<C>> Optional<T> find(IRecipeType<T> type, C inv, World world)
+        {
+            int[] layout = new int[inv.getContainerSize()];
+            IntSet present = new IntArraySet();
+            for (int slot = 0; slot < layout.length; slot++)
+            {
+                ItemStack stack = inv.getItem(slot);
+                layout[slot] = stack.isEmpty() ? -1 : RecipeItemHelper.getStackingIndex(stack);
+                if (layout[slot] != -1)
+                    present.add(layout[slot]);
+            }
+
+            if (present.isEmpty())
+            {
+                for (IRecipe<?> recipe : recipes)
+                {
+                    Optional<T> match = type.tryMatch((IRecipe<C>)recipe, world, inv);
+                    if (match.isPresent())
+                        return match;
+                }
+                return Optional.empty();
+            }
+
+            // The candidate list only depends on the items present, so with an unchanged layout every item determined
+            // candidate before the last match is known to fail and the last match itself is known to succeed.
+            LastMatch last = lastMatches.get(inv);
+            boolean sameLayout = last != null && Arrays.equals(last.layout, layout);
+            for (int ordinal : candidates(present))
+            {
+                boolean known = sameLayout && itemDetermined.get(ordinal);
+                if (known && ordinal == last.ordinal)
+                    return Optional.of((T)recipes[ordinal]);
+                if (known && (last.ordinal == NO_MATCH || ordinal < last.ordinal))
+                    continue;
+
+                Optional<T> match = type.tryMatch((IRecipe<C>)recipes[ordinal], world, inv);
+                if (match.isPresent())
+                {
+                    lastMatches.put(inv, new LastMatch(layout, ordinal));
+                    return match;
+                }
+            }
+            if (!sameLayout || last.ordinal != NO_MATCH)
+                lastMatches.put(inv, new LastMatch(layout, NO_MATCH));
+            return Optional.empty();
+        }
+
+        /**
+         * Intersects the posting lists of every present item, smallest first, and merges the unindexed recipes
+         * back in so the result stays in recipe order.
+         */
+        private int[] candidates(IntSet present)
+        {
+            int[][] lists = new int[present.size()][];
+            int count = 0;
+            for (IntIterator itr = present.iterator(); itr.hasNext();)
+            {
+                int[] list = postings.get(itr.nextInt());
+                lists[count++] = list == null ? NONE : list;
+            }
+            Arrays.sort(lists, Comparator.comparingInt(list -> list.length));
+
+            int[] acc = lists[0].clone();
+            int len = acc.length;
+            for (int i = 1; i < count && len > 0; i++)
+            {
+                int[] other = lists[i];
+                int kept = 0;
+                for (int a = 0, b = 0; a < len && b < other.length; a++)
+                {
+                    int value = acc[a];
+                    while (b < other.length && other[b] < value)
+                        b++;
+                    if (b < other.length && other[b] == value)
+                        acc[kept++] = value;
+                }
+                len = kept;
+            }
+
+            if (unindexed.length == 0)
+                return len == acc.length ? acc : Arrays.copyOf(acc, len);
+
+            int[] ret = new int[len + unindexed.length];
+            int a = 0, b = 0, out = 0;
+            while (a < len && b < unindexed.length)
+                ret[out++] = acc[a] < unindexed[b] ? acc[a++] : unindexed[b++];
+            while (a < len)
+                ret[out++] = acc[a++];
+            while (b < unindexed.length)
+                ret[out++] = unindexed[b++];
+            return ret;
+        }
+
+        /**
+         * Adds every item the recipe could accept to {@code ids}.
+         * @return null if the recipe can't be indexed, otherwise whether matching it only depends on items.
+         */
+        @Nullable
+        private static Boolean collectItemIds(IRecipe<?> recipe, IntSet ids)
+        {
+            if (recipe.getClass() != ShapedRecipe.class && recipe.getClass() != ShapelessRecipe.class)
+                return null;
+
+            boolean determined = true;
+            for (Ingredient ingredient : recipe.getIngredients())
+            {
+                Boolean ret = collectItemIds(ingredient, ids);
+                if (ret == null)
+                    return null;
+                determined &= ret;
+            }
+            return determined;
+        }
+
+        @Nullable
+        private static Boolean collectItemIds(Ingredient ingredient, IntSet ids)
+        {
+            if (ingredient.getClass() == CompoundIngredient.class)
+            {
+                boolean determined = true;
+                for (Ingredient child : ((CompoundIngredient)ingredient).getChildren())
+                {
+                    Boolean ret = collectItemIds(child, ids);
+                    if (ret == null)
+                        return null;
+                    determined &= ret;
+                }
+                return determined;
+            }
+            if (!ingredient.isVanilla() && ingredient.getClass() != NBTIngredient.class)
+                return null;
+
+            ids.addAll(ingredient.getStackingIds());
+            return ingredient.isVanilla();
+        }
+    }
+
+    private static class LastMatch
+    {
+        private final int[] layout;
+        private final int ordinal;
+
+        private LastMatch(int[] layout, int ordinal)
+        {
+            this.layout = layout;
+            this.ordinal = ordinal;
+        }
+    }
+}
@@ -72,6 +72,8 @@ public final class AnimationStateMachine implements IAnimationStateMachine
     @SerializedName("start_state")
     private final String startState;
 
+    // Clips of each state, compiled once so evaluating and caching them does not walk the clip graph
+    private transient ImmutableMap<String, IClip> compiledClips;
     private transient boolean shouldHandleSpecialEvents;
     private transient String currentStateName;
     private transient IClip currentState;
@@ -121,8 +123,17 @@ public final class AnimationStateMachine implements IAnimationStateMachine
         }
         shouldHandleSpecialEvents = true;
         lastPollTime = Float.NEGATIVE_INFINITY;
+        ImmutableMap.Builder<String, IClip> compiled = ImmutableMap.builder();
+        for(Map.Entry<String, IClip> entry : clips.entrySet())
+        {
+            if(states.contains(entry.getKey()))
+            {
+                compiled.put(entry.getKey(), Clips.compile(entry.getValue()));
+            }
+        }
+        compiledClips = compiled.build();
         // setting the starting state
-        IClip state = clips.get(startState);
+        IClip state = compiledClips.get(startState);
         if(!clips.containsKey(startState) || !states.contains(startState))
         {
             throw new IllegalStateException("unknown state: " + startState);
@@ -177,7 +188,7 @@ public final class AnimationStateMachine implements IAnimationStateMachine
     @Override
     public void transition(String newState)
     {
-        IClip nc = clips.get(newState);
+        IClip nc = compiledClips.get(newState);
         if(!clips.containsKey(newState) || !states.contains(newState))
         {
             throw new IllegalStateException("unknown state: " + newState);
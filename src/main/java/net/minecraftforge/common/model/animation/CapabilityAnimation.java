@@ -24,7 +24,7 @@ import net.minecraft.util.Direction;
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.common.capabilities.CapabilityInject;
 import net.minecraftforge.common.capabilities.CapabilityManager;
-import net.minecraftforge.common.capabilities.ICapabilityProvider;
+import net.minecraftforge.common.capabilities.IStaticCapabilityProvider;
 import net.minecraftforge.common.util.LazyOptional;
 
 import javax.annotation.Nonnull;
@@ -50,7 +50,7 @@ public class CapabilityAnimation
         }, AnimationStateMachine::getMissing);
     }
 
-    public static class DefaultItemAnimationCapabilityProvider implements ICapabilityProvider
+    public static class DefaultItemAnimationCapabilityProvider implements IStaticCapabilityProvider
     {
         @Nonnull
         private final LazyOptional<IAnimationStateMachine> asm;
@@ -42,7 +42,24 @@ import org.apache.logging.log4j.Logger;
 
 import java.util.function.Function;
 import com.google.common.base.Objects;
+import com.google.common.collect.MapMaker;
+import it.unimi.dsi.fastutil.booleans.BooleanArrayList;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import net.minecraftforge.common.animation.TimeValues;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Ordering;
@@ -444,6 +461,331 @@ public final class Clips
         }
     }
 
+    /**
+     * Flattens a clip graph into a single {@link CompiledClip}.
+     * All time values of the graph are compiled into one {@link TimeValues.CompiledValues} program, and the remaining work per joint is a flat list
+     * of leaf clip samples and slerps. Slerps with a constant progress and blends of identity clips are folded away.
+     */
+    public static IClip compile(IClip clip)
+    {
+        if(clip instanceof CompiledClip)
+        {
+            return clip;
+        }
+        ClipCompiler compiler = new ClipCompiler();
+        int output = compiler.add(clip, compiler.values.input());
+        if(output == ClipCompiler.IDENTITY && clip instanceof IdentityClip)
+        {
+            return clip;
+        }
+        return new CompiledClip(clip, compiler.values.build(), compiler.leaves.toArray(new IClip[0]), compiler.shared.toBooleanArray(), compiler.code.toIntArray(), compiler.matrices, output);
+    }
+
+    private static final class ClipCompiler
+    {
+        static final int IDENTITY = -1;
+        static final int SAMPLE = 0;
+        static final int SLERP = 1;
+
+        final TimeValues.ValueCompiler values = new TimeValues.ValueCompiler();
+        final List<IClip> leaves = new ArrayList<>();
+        final BooleanArrayList shared = new BooleanArrayList();
+        final IntArrayList code = new IntArrayList();
+        int matrices = 0;
+        private final Long2IntMap samples = new Long2IntOpenHashMap();
+        // Slerp clip -> time register -> result, so clips reached through several paths are only expanded once
+        private final Map<SlerpClip, Int2IntMap> slerps = new IdentityHashMap<>();
+        // References being expanded on the current path. Reaching one again means the graph is cyclic, the reference is then
+        // sampled as a leaf and left to fail like it does uncompiled.
+        private final Set<ClipReference> path = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        /**
+         * @return the matrix register holding the clip sampled at the given time register, or {@link #IDENTITY}
+         */
+        int add(IClip clip, int time)
+        {
+            if(clip instanceof IdentityClip)
+            {
+                return IDENTITY;
+            }
+            if(clip instanceof ModelClip)
+            {
+                // Model clips only depend on the time, so their samples can be shared between state machines
+                return sample(((ModelClip)clip).childClip, time, true);
+            }
+            if(clip instanceof TimeClip)
+            {
+                TimeClip timeClip = (TimeClip)clip;
+                return add(timeClip.childClip, values.add(timeClip.time, time));
+            }
+            if(clip instanceof TriggerClip)
+            {
+                return add(((TriggerClip)clip).clip, time);
+            }
+            if(clip instanceof ClipReference)
+            {
+                ClipReference reference = (ClipReference)clip;
+                if(!path.add(reference))
+                {
+                    return sample(clip, time, false);
+                }
+                try
+                {
+                    reference.resolve();
+                    return add(reference.clip, time);
+                }
+                catch(IllegalArgumentException e)
+                {
+                    return sample(clip, time, false);
+                }
+                finally
+                {
+                    path.remove(reference);
+                }
+            }
+            if(clip instanceof SlerpClip)
+            {
+                SlerpClip slerp = (SlerpClip)clip;
+                Int2IntMap results = slerps.get(slerp);
+                if(results == null)
+                {
+                    results = new Int2IntOpenHashMap();
+                    slerps.put(slerp, results);
+                }
+                if(!results.containsKey(time))
+                {
+                    results.put(time, addSlerp(slerp, time));
+                }
+                return results.get(time);
+            }
+            return sample(clip, time, false);
+        }
+
+        private int addSlerp(SlerpClip clip, int time)
+        {
+            int input = values.add(clip.input, time);
+            int from = add(clip.from, input);
+            int to = add(clip.to, input);
+            int progress = values.add(clip.progress, time);
+            if(from == IDENTITY && to == IDENTITY)
+            {
+                return IDENTITY;
+            }
+            if(values.isConstant(progress))
+            {
+                float p = MathHelper.clamp(values.getConstant(progress), 0, 1);
+                if(p == 0)
+                {
+                    return from;
+                }
+                if(p == 1)
+                {
+                    return to;
+                }
+            }
+            return emit(SLERP, from, to, progress);
+        }
+
+        private int sample(IClip clip, int time, boolean isShared)
+        {
+            int leaf = 0;
+            while(leaf < leaves.size() && (leaves.get(leaf) != clip || shared.getBoolean(leaf) != isShared))
+            {
+                leaf++;
+            }
+            if(leaf == leaves.size())
+            {
+                leaves.add(clip);
+                shared.add(isShared);
+            }
+            long key = ((long)leaf << 32) | time;
+            if(!samples.containsKey(key))
+            {
+                samples.put(key, emit(SAMPLE, leaf, time, 0));
+            }
+            return samples.get(key);
+        }
+
+        private int emit(int op, int a, int b, int c)
+        {
+            code.add(op);
+            code.add(matrices);
+            code.add(a);
+            code.add(b);
+            code.add(c);
+            return matrices++;
+        }
+    }
+
+    /**
+     * Result of {@link #compile(IClip)}. Events still come from the original clip.
+     */
+    public static final class CompiledClip implements IClip
+    {
+        private final IClip source;
+        private final TimeValues.CompiledValues values;
+        private final IClip[] leaves;
+        private final boolean[] shared;
+        // 5 ints per instruction: opcode, target register, then the leaf and time register to sample, or the two matrix registers and progress register to slerp
+        private final int[] code;
+        private final int matrices;
+        private final int output;
+
+        private CompiledClip(IClip source, TimeValues.CompiledValues values, IClip[] leaves, boolean[] shared, int[] code, int matrices, int output)
+        {
+            this.source = source;
+            this.values = values;
+            this.leaves = leaves;
+            this.shared = shared;
+            this.code = code;
+            this.matrices = matrices;
+            this.output = output;
+        }
+
+        public IClip getSource()
+        {
+            return source;
+        }
+
+        @Override
+        public IJointClip apply(IJoint joint)
+        {
+            if(output == ClipCompiler.IDENTITY)
+            {
+                return JointClips.IdentityJointClip.INSTANCE;
+            }
+            IJointClip[] jointClips = new IJointClip[leaves.length];
+            for(int i = 0; i < leaves.length; i++)
+            {
+                jointClips[i] = leaves[i].apply(joint);
+            }
+            return new CompiledJointClip(this, jointClips);
+        }
+
+        @Override
+        public Iterable<Event> pastEvents(float lastPollTime, float time)
+        {
+            return source.pastEvents(lastPollTime, time);
+        }
+
+        // Compiling is deterministic, so clips compiled from equal sources behave the same and can share cache entries
+
+        @Override
+        public int hashCode()
+        {
+            return source.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+                return true;
+            if (obj == null)
+                return false;
+            if (getClass() != obj.getClass())
+                return false;
+            CompiledClip other = (CompiledClip) obj;
+            return source.equals(other.source);
+        }
+    }
+
+    private static final class CompiledJointClip implements IJointClip
+    {
+        private final CompiledClip clip;
+        private final IJointClip[] jointClips;
+        // Registers reused between evaluations. Taken while in use, so concurrent or reentrant calls allocate their own.
+        private final AtomicReference<Scratch> scratch = new AtomicReference<>();
+
+        CompiledJointClip(CompiledClip clip, IJointClip[] jointClips)
+        {
+            this.clip = clip;
+            this.jointClips = jointClips;
+        }
+
+        private static final class Scratch
+        {
+            float[] times = new float[0];
+            final TransformationMatrix[] matrices;
+
+            Scratch(int matrices)
+            {
+                this.matrices = new TransformationMatrix[matrices];
+            }
+        }
+
+        @Override
+        public TransformationMatrix apply(float time)
+        {
+            Scratch s = scratch.getAndSet(null);
+            if(s == null)
+            {
+                s = new Scratch(clip.matrices);
+            }
+            TransformationMatrix ret = apply(time, s);
+            scratch.set(s);
+            return ret;
+        }
+
+        private TransformationMatrix apply(float time, Scratch s)
+        {
+            float[] t = s.times = clip.values.evaluate(time, s.times);
+            TransformationMatrix[] m = s.matrices;
+            int[] code = clip.code;
+            for(int pc = 0; pc < code.length; pc += 5)
+            {
+                switch(code[pc])
+                {
+                    case ClipCompiler.SAMPLE:
+                        int leaf = code[pc + 2];
+                        float leafTime = t[code[pc + 3]];
+                        m[code[pc + 1]] = clip.shared[leaf] ? sample(jointClips[leaf], leafTime) : jointClips[leaf].apply(leafTime);
+                        break;
+                    case ClipCompiler.SLERP:
+                        m[code[pc + 1]] = TransformationHelper.slerp(get(m, code[pc + 2]), get(m, code[pc + 3]), MathHelper.clamp(t[code[pc + 4]], 0, 1));
+                        break;
+                }
+            }
+            return get(m, clip.output);
+        }
+
+        private static TransformationMatrix get(TransformationMatrix[] m, int register)
+        {
+            return register == ClipCompiler.IDENTITY ? TransformationMatrix.identity() : m[register];
+        }
+    }
+
+    // Last sample of each model joint clip. Model clips are shared by every state machine using the model, so instances animated in sync reuse one sample.
+    private static final ConcurrentMap<IJointClip, JointSample> lastSamples = new MapMaker().weakKeys().makeMap();
+
+    private static final class JointSample
+    {
+        final float time;
+        final TransformationMatrix transform;
+
+        JointSample(float time, TransformationMatrix transform)
+        {
+            this.time = time;
+            this.transform = transform;
+        }
+    }
+
+    private static TransformationMatrix sample(IJointClip clip, float time)
+    {
+        if(clip instanceof JointClips.IdentityJointClip)
+        {
+            return TransformationMatrix.identity();
+        }
+        JointSample last = lastSamples.get(clip);
+        if(last != null && Float.compare(last.time, time) == 0)
+        {
+            return last.transform;
+        }
+        TransformationMatrix ret = clip.apply(time);
+        lastSamples.put(clip, new JointSample(time, ret));
+        return ret;
+    }
+
     public static enum CommonClipTypeAdapterFactory implements TypeAdapterFactory
     {
         INSTANCE;
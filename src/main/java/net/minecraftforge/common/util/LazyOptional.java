@@ -28,8 +28,6 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 
-import org.apache.commons.lang3.mutable.Mutable;
-import org.apache.commons.lang3.mutable.MutableObject;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -47,7 +45,8 @@ import net.minecraftforge.common.capabilities.Capability;
  * <p>
  * To create an instance of this class, use {@link #of(NonNullSupplier)}. Note
  * that this accepts a {@link NonNullSupplier}, so the result of the supplier
- * must never be null.
+ * must never be null. Values that are already available can be wrapped with
+ * {@link #ofResolved(Object)}, which skips the supplier entirely.
  * <p>
  * The empty instance can be retrieved with {@link #empty()}.
  * 
@@ -58,14 +57,18 @@ import net.minecraftforge.common.capabilities.Capability;
 public class LazyOptional<T>
 {
     private final NonNullSupplier<T> supplier;
-    private final Object lock = new Object();
-    // null -> not resolved yet
-    // non-null and contains non-null value -> resolved
-    // non-null and contains null -> resolved, but supplier returned null (contract violation)
-    private Mutable<T> resolved;
-    private Set<NonNullConsumer<LazyOptional<T>>> listeners = new HashSet<>();
+    // Only allocated for instances that still need to resolve their supplier
+    private final @Nullable Object lock;
+    // UNRESOLVED -> not resolved yet
+    // non-null -> resolved
+    // null -> resolved, but supplier returned null (contract violation)
+    private volatile Object resolved;
+    // Allocated on the first call to addListener
+    private @Nullable Set<NonNullConsumer<LazyOptional<T>>> listeners;
     private boolean isValid = true;
 
+    private static final Object UNRESOLVED = new Object();
+    private static final NonNullSupplier<?> PRE_RESOLVED = () -> { throw new IllegalStateException("Pre-resolved LazyOptional should never query its supplier"); };
     private static final @Nonnull LazyOptional<Void> EMPTY = new LazyOptional<>(null);
     private static final Logger LOGGER = LogManager.getLogger();
 
@@ -82,6 +85,22 @@ public class LazyOptional<T>
         return instanceSupplier == null ? empty() : new LazyOptional<>(instanceSupplier);
     }
 
+    /**
+     * Construct a new {@link LazyOptional} that already holds the given value.
+     * <p>
+     * Use this instead of {@link #of(NonNullSupplier)} when the value is already
+     * available, such as a capability handler stored in a field. The returned
+     * instance behaves exactly like one created from a supplier, including
+     * invalidation and listeners, but never takes a lock to resolve.
+     *
+     * @param value The value to wrap. If null, this method returns {@link #empty()}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> LazyOptional<T> ofResolved(final @Nullable T value)
+    {
+        return value == null ? empty() : new LazyOptional<>((NonNullSupplier<T>)PRE_RESOLVED, value);
+    }
+
     /**
      * @return The singleton empty instance
      */
@@ -106,27 +125,39 @@ public class LazyOptional<T>
     private LazyOptional(@Nullable NonNullSupplier<T> instanceSupplier)
     {
         this.supplier = instanceSupplier;
+        this.lock = instanceSupplier == null ? null : new Object();
+        this.resolved = UNRESOLVED;
+    }
+
+    private LazyOptional(NonNullSupplier<T> instanceSupplier, T value)
+    {
+        this.supplier = instanceSupplier;
+        this.lock = null;
+        this.resolved = value;
     }
 
+    @SuppressWarnings("unchecked")
     private @Nullable T getValue()
     {
         if (!isValid || supplier == null)
             return null;
-        if (resolved == null)
+        Object ret = resolved;
+        if (ret == UNRESOLVED)
         {
             synchronized (lock)
             {
-                // resolved == null: Double checked locking to prevent two threads from resolving
-                if (resolved == null)
+                // resolved == UNRESOLVED: Double checked locking to prevent two threads from resolving
+                ret = resolved;
+                if (ret == UNRESOLVED)
                 {
                     T temp = supplier.get();
                     if (temp == null)
                         LOGGER.catching(Level.WARN, new NullPointerException("Supplier should not return null value"));
-                    resolved = new MutableObject<>(temp);
+                    resolved = ret = temp;
                 }
             }
         }
-        return resolved.getValue();
+        return (T)ret;
     }
 
     private T getValueUnsafe()
@@ -305,6 +336,8 @@ public class LazyOptional<T>
     {
         if (isPresent())
         {
+            if (this.listeners == null)
+                this.listeners = new HashSet<>();
             this.listeners.add(listener);
         }
         else
@@ -332,7 +365,8 @@ public class LazyOptional<T>
         if (this.isValid)
         {
             this.isValid = false;
-            this.listeners.forEach(e -> e.accept(this));
+            if (this.listeners != null)
+                this.listeners.forEach(e -> e.accept(this));
         }
     }
 }
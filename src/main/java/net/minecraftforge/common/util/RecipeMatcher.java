@@ -19,12 +19,15 @@
 
 package net.minecraftforge.common.util;
 
-import java.util.BitSet;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Queue;
 import java.util.function.Predicate;
 
+import it.unimi.dsi.fastutil.ints.IntList;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.Ingredient;
+
 public class RecipeMatcher
 {
     /**
@@ -35,6 +38,9 @@ public class RecipeMatcher
      *   any test doesn't match a input
      *   If we are unable to determine a proper pair
      *
+     * Identical inputs and tests are grouped first so each distinct pair is only tested once, the pairing itself is
+     * then solved with Hopcroft-Karp, so large recipes stay cheap regardless of how ambiguous they are.
+     *
      * @return An array mapping inputs to tests. ret[x] = y means input[x] = test[y]
      */
     public static <T> int[] findMatches(List<T> inputs, List<? extends Predicate<T>> tests)
@@ -43,120 +49,219 @@ public class RecipeMatcher
         if (elements != tests.size())
             return null; // There will not be a 1:1 mapping of inputs -> tests
 
-        int[] ret = new int[elements];
-        for (int x = 0; x < elements; x++)
-            ret[x] = -1;
+        List<T> inputGroups = new ArrayList<>();
+        int[] inputGroup = groupInputs(inputs, inputGroups);
+        List<Predicate<T>> testGroups = new ArrayList<>();
+        int[] testGroup = groupTests(tests, testGroups);
 
-        // [UnusedInputs] [UnusedIngredients] [IngredientMatchMask]...
-        BitSet data = new BitSet((elements + 2) * elements);
-        for (int x = 0; x < elements; x++)
+        // Every distinct test against every distinct input, once.
+        boolean[][] groupMatches = new boolean[testGroups.size()][inputGroups.size()];
+        boolean[] inputUsed = new boolean[inputGroups.size()];
+        for (int x = 0; x < groupMatches.length; x++)
         {
-            int matched = 0;
-            int offset = (x + 2) * elements;
-            Predicate<T> test = tests.get(x);
-
-            for (int y = 0; y < elements; y++)
+            Predicate<T> test = testGroups.get(x);
+            boolean matched = false;
+            for (int y = 0; y < inputGroups.size(); y++)
             {
-                if (data.get(y))
-                    continue;
-
-                if (test.test(inputs.get(y)))
+                if (test.test(inputGroups.get(y)))
                 {
-                    data.set(offset + y);
-                    matched++;
+                    groupMatches[x][y] = true;
+                    inputUsed[y] = matched = true;
                 }
             }
 
-            if (matched == 0)
+            if (!matched)
                 return null; //We have an test that matched non of the inputs
-
-            if (matched == 1)
-            {
-                if (!claim(ret, data, x, elements))
-                    return null; //We failed to claim this index, which means it caused something else to go to 0 matches, which makes the whole thing fail
-            }
         }
+        for (boolean used : inputUsed)
+            if (!used)
+                return null; //We have an input that no test will take
 
-        if (data.nextClearBit(0) >= elements) //All items have been used, which means all tests have a match!
-            return ret;
-
-        // We should be in a state where multiple tests are satified by multiple inputs. So we need to try a branching recursive test.
-        // However for performance reasons, we should probably make that check a sub-set of the entire graph.
-        if (backtrack(data, ret, 0, elements))
-            return ret;
+        // Expand back out to the real inputs, tests in the same group share their adjacency.
+        int[][] groupAdjacency = new int[testGroups.size()][];
+        int[] buf = new int[elements];
+        for (int x = 0; x < groupAdjacency.length; x++)
+        {
+            int count = 0;
+            for (int y = 0; y < elements; y++)
+                if (groupMatches[x][inputGroup[y]])
+                    buf[count++] = y;
+            groupAdjacency[x] = Arrays.copyOf(buf, count);
+        }
+        int[][] adjacency = new int[elements][];
+        for (int x = 0; x < elements; x++)
+            adjacency[x] = groupAdjacency[testGroup[x]];
 
-        return null; //Backtrack failed, no matches, we cry and go home now :(
+        return new HopcroftKarp(adjacency, elements).solve();
     }
 
-    // This is bad... need to think of a better cascade, recursion instead of stack?
-    private static boolean claim(int[] ret, BitSet data, int claimed, int elements)
+    /**
+     * Stacks that are fully equal can't be told apart by any test, everything else is only grouped with itself.
+     */
+    private static <T> int[] groupInputs(List<T> inputs, List<T> groups)
     {
-        Queue<Integer> pending = new LinkedList<Integer>();
-        pending.add(claimed);
-
-        while (pending.peek() != null)
+        int[] ret = new int[inputs.size()];
+        for (int x = 0; x < ret.length; x++)
         {
-            int test = pending.poll();
-            int offset = (test + 2) * elements;
-            int used = data.nextSetBit(offset) - offset;
-
-            if (used >= elements || used < 0)
-                throw new IllegalStateException("What? We matched something, but it wasn't set in the range of this test! Test: " + test +  " Used: " + used);
-
-            data.set(used);
-            data.set(elements + test);
-            ret[used] = test;
-
-            for (int x = 0; x < elements; x++)
+            T input = inputs.get(x);
+            ret[x] = -1;
+            if (input instanceof ItemStack)
             {
-                offset = (x + 2) * elements;
-                if (data.get(offset + used) && !data.get(elements + x))
+                ItemStack stack = (ItemStack)input;
+                for (int group = 0; group < groups.size() && ret[x] == -1; group++)
                 {
-                    data.clear(offset + used);
-                    int count = 0;
-                    for (int y = offset; y < offset + elements; y++)
-                        if (data.get(y))
-                            count++;
-
-                    if (count == 0)
-                        return false; //Claiming this caused another test to lose its last match..
-
-                    if (count == 1)
-                        pending.add(x);
+                    T other = groups.get(group);
+                    if (other instanceof ItemStack && ((ItemStack)other).getItem() == stack.getItem() && ItemStack.matches(stack, (ItemStack)other))
+                        ret[x] = group;
                 }
             }
+            if (ret[x] == -1)
+            {
+                ret[x] = groups.size();
+                groups.add(input);
+            }
         }
+        return ret;
+    }
 
-        return true;
+    /**
+     * Vanilla ingredients only compare items, so two with the same stacking ids behave identically.
+     * Anything else is only grouped with the exact same instance.
+     */
+    private static <T> int[] groupTests(List<? extends Predicate<T>> tests, List<Predicate<T>> groups)
+    {
+        int[] ret = new int[tests.size()];
+        for (int x = 0; x < ret.length; x++)
+        {
+            Predicate<T> test = tests.get(x);
+            IntList ids = isVanilla(test) ? ((Ingredient)test).getStackingIds() : null;
+            ret[x] = -1;
+            for (int group = 0; group < groups.size() && ret[x] == -1; group++)
+            {
+                Predicate<T> other = groups.get(group);
+                if (other == test || (ids != null && isVanilla(other) && ids.equals(((Ingredient)other).getStackingIds())))
+                    ret[x] = group;
+            }
+            if (ret[x] == -1)
+            {
+                ret[x] = groups.size();
+                groups.add(test);
+            }
+        }
+        return ret;
     }
 
-    //We use recursion here, why? Because I feel like it. Also because we should only ever be working in data sets < 9
-    private static boolean backtrack(BitSet data, int[] ret, int start, int elements)
+    private static boolean isVanilla(Predicate<?> test)
     {
-      int test = data.nextClearBit(elements + start) - elements;
-      if (test >= elements)
-        return true; //Could not find the next unused test.
+        return test instanceof Ingredient && ((Ingredient)test).isVanilla();
+    }
 
-      if (test < 0)
-        throw new IllegalStateException("This should never happen, negative test in backtrack!");
+    /**
+     * Maximum bipartite matching of tests (left) to inputs (right).
+     */
+    private static class HopcroftKarp
+    {
+        private static final int FREE = -1;
+        private static final int INF = Integer.MAX_VALUE;
 
-      int offset = (test + 2) * elements;
-      for (int x = 0; x < elements; x++)
-      {
-        if (!data.get(offset + x) || data.get(x))
-            continue;
+        private final int[][] adjacency;
+        private final int size;
+        private final int[] testMatch;
+        private final int[] inputMatch;
+        private final int[] dist;
+        private final int[] queue;
 
-        data.set(x);
+        private HopcroftKarp(int[][] adjacency, int size)
+        {
+            this.adjacency = adjacency;
+            this.size = size;
+            this.testMatch = new int[size];
+            this.inputMatch = new int[size];
+            this.dist = new int[size];
+            this.queue = new int[size];
+            Arrays.fill(testMatch, FREE);
+            Arrays.fill(inputMatch, FREE);
+        }
 
-        if (backtrack(data, ret, test + 1, elements))
+        /**
+         * @return inputs mapped to tests, or null if not every test could be paired.
+         */
+        private int[] solve()
         {
-            ret[x] = test;
-            return true;
+            int matched = 0;
+            // Greedy pass first, most recipes are settled by it alone.
+            for (int x = 0; x < size; x++)
+            {
+                for (int y : adjacency[x])
+                {
+                    if (inputMatch[y] == FREE)
+                    {
+                        inputMatch[y] = x;
+                        testMatch[x] = y;
+                        matched++;
+                        break;
+                    }
+                }
+            }
+
+            while (matched < size && bfs())
+            {
+                for (int x = 0; x < size; x++)
+                    if (testMatch[x] == FREE && dfs(x))
+                        matched++;
+            }
+
+            return matched == size ? inputMatch : null;
         }
 
-        data.clear(x);
-      }
+        private boolean bfs()
+        {
+            int head = 0, tail = 0;
+            for (int x = 0; x < size; x++)
+            {
+                if (testMatch[x] == FREE)
+                {
+                    dist[x] = 0;
+                    queue[tail++] = x;
+                }
+                else
+                    dist[x] = INF;
+            }
+
+            boolean found = false;
+            while (head < tail)
+            {
+                int x = queue[head++];
+                for (int y : adjacency[x])
+                {
+                    int next = inputMatch[y];
+                    if (next == FREE)
+                        found = true;
+                    else if (dist[next] == INF)
+                    {
+                        dist[next] = dist[x] + 1;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+            return found;
+        }
 
-      return false;
+        //Depth is bounded by the number of tests, which is at most the size of the crafting grid
+        private boolean dfs(int x)
+        {
+            for (int y : adjacency[x])
+            {
+                int next = inputMatch[y];
+                if (next == FREE || (dist[next] == dist[x] + 1 && dfs(next)))
+                {
+                    testMatch[x] = y;
+                    inputMatch[y] = x;
+                    return true;
+                }
+            }
+            dist[x] = INF;
+            return false;
+        }
     }
 }
@@ -0,0 +1,195 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2021.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.common.world;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.entity.player.ServerPlayerEntity;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.SectionPos;
+import net.minecraft.world.server.ServerWorld;
+
+/**
+ * Buckets the players of a dimension into 64x64 block columns so nearby players can be found
+ * without checking every player on the server.
+ *
+ * The index is rebuilt lazily, at most once per tick, and whenever a player logs in or out,
+ * respawns, changes dimension or teleports through one of Forge's teleport events. Players that
+ * moved since the last rebuild are still found as long as they stayed within one column of where
+ * they were indexed, as every query looks one column further out and then checks the exact position.
+ * Anything teleporting players without firing an event should call {@link #invalidate()}.
+ *
+ * The index must only be used from the server thread.
+ */
+public class PlayerSpatialIndex
+{
+    private static final int CELL_SHIFT = 6;
+    private static final Map<ServerWorld, PlayerSpatialIndex> INDICES = new IdentityHashMap<>();
+    private static int epoch;
+
+    private final ServerWorld world;
+    private final Long2ObjectMap<List<ServerPlayerEntity>> cells = new Long2ObjectOpenHashMap<>();
+    private int builtTick = -1;
+    private int builtEpoch = -1;
+
+    private PlayerSpatialIndex(ServerWorld world)
+    {
+        this.world = world;
+    }
+
+    /**
+     * @return The index of the players in the given world
+     */
+    public static PlayerSpatialIndex get(ServerWorld world)
+    {
+        return INDICES.computeIfAbsent(world, PlayerSpatialIndex::new);
+    }
+
+    /**
+     * Forces every index to be rebuilt on its next query.
+     */
+    public static void invalidate()
+    {
+        epoch++;
+    }
+
+    //Internal only, used to drop the index of a world that is unloading.
+    public static void unload(ServerWorld world)
+    {
+        INDICES.remove(world);
+    }
+
+    /**
+     * Visits every player within {@code radius} blocks of the given position, using the same check as
+     * {@link net.minecraft.server.management.PlayerList#broadcast}.
+     *
+     * @param excluded A player to skip, or null
+     */
+    public void forEachNear(double x, double y, double z, double radius, @Nullable ServerPlayerEntity excluded, Consumer<ServerPlayerEntity> consumer)
+    {
+        final double r2 = radius * radius;
+        forEachCandidate(MathHelper.floor(x - radius), MathHelper.floor(z - radius), MathHelper.floor(x + radius), MathHelper.floor(z + radius), player -> {
+            if (player == excluded)
+                return;
+            double dx = x - player.getX();
+            double dy = y - player.getY();
+            double dz = z - player.getZ();
+            if (dx * dx + dy * dy + dz * dz < r2)
+                consumer.accept(player);
+        });
+    }
+
+    /**
+     * @return Every player within {@code radius} blocks of the given position
+     * @see #forEachNear(double, double, double, double, ServerPlayerEntity, Consumer)
+     */
+    public List<ServerPlayerEntity> getPlayersNear(double x, double y, double z, double radius, @Nullable ServerPlayerEntity excluded)
+    {
+        List<ServerPlayerEntity> ret = new ArrayList<>();
+        forEachNear(x, y, z, radius, excluded, ret::add);
+        return ret;
+    }
+
+    /**
+     * Visits every player tracking the given chunk, matching {@link net.minecraft.world.server.ChunkManager#getPlayers(ChunkPos, boolean)}.
+     *
+     * @param boundaryOnly Only visit players for which the chunk is on the edge of their view distance
+     */
+    public void forEachTracking(ChunkPos pos, boolean boundaryOnly, Consumer<ServerPlayerEntity> consumer)
+    {
+        // Matches ChunkManager.setViewDistance, which tracks one chunk further than the configured view distance
+        final int viewDistance = MathHelper.clamp(world.getServer().getPlayerList().getViewDistance() + 1, 3, 33);
+        forEachCandidate((pos.x - viewDistance) << 4, (pos.z - viewDistance) << 4, ((pos.x + viewDistance) << 4) + 15, ((pos.z + viewDistance) << 4) + 15, player -> {
+            SectionPos section = player.getLastSectionPos();
+            int distance = Math.max(Math.abs(pos.x - section.x()), Math.abs(pos.z - section.z()));
+            if (distance <= viewDistance && (!boundaryOnly || distance == viewDistance))
+                consumer.accept(player);
+        });
+    }
+
+    /**
+     * @return Every player tracking the given chunk
+     * @see #forEachTracking(ChunkPos, boolean, Consumer)
+     */
+    public List<ServerPlayerEntity> getPlayersTracking(ChunkPos pos, boolean boundaryOnly)
+    {
+        List<ServerPlayerEntity> ret = new ArrayList<>();
+        forEachTracking(pos, boundaryOnly, ret::add);
+        return ret;
+    }
+
+    private void forEachCandidate(int minX, int minZ, int maxX, int maxZ, Consumer<ServerPlayerEntity> consumer)
+    {
+        refresh();
+        List<ServerPlayerEntity> players = world.players();
+        // Look one cell further out to catch players that moved since the index was built
+        int minCellX = (minX >> CELL_SHIFT) - 1;
+        int minCellZ = (minZ >> CELL_SHIFT) - 1;
+        int maxCellX = (maxX >> CELL_SHIFT) + 1;
+        int maxCellZ = (maxZ >> CELL_SHIFT) + 1;
+        long area = (long)(maxCellX - minCellX + 1) * (maxCellZ - minCellZ + 1);
+        if (area >= cells.size() || area >= players.size())
+        {
+            // Cheaper to check everyone than to probe every cell
+            for (ServerPlayerEntity player : players)
+                consumer.accept(player);
+            return;
+        }
+        List<ServerPlayerEntity> found = new ArrayList<>();
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++)
+        {
+            for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++)
+            {
+                List<ServerPlayerEntity> cell = cells.get(ChunkPos.asLong(cellX, cellZ));
+                if (cell != null)
+                    found.addAll(cell);
+            }
+        }
+        for (ServerPlayerEntity player : found)
+        {
+            if (player.level == world)
+                consumer.accept(player);
+        }
+    }
+
+    private void refresh()
+    {
+        int tick = world.getServer().getTickCount();
+        if (tick == builtTick && epoch == builtEpoch)
+            return;
+        builtTick = tick;
+        builtEpoch = epoch;
+        cells.clear();
+        for (ServerPlayerEntity player : world.players())
+        {
+            long key = ChunkPos.asLong(MathHelper.floor(player.getX()) >> CELL_SHIFT, MathHelper.floor(player.getZ()) >> CELL_SHIFT);
+            cells.computeIfAbsent(key, k -> new ArrayList<>()).add(player);
+        }
+    }
+}
@@ -26,7 +26,7 @@ import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.CompoundNBT;
 import net.minecraft.util.Direction;
 import net.minecraftforge.common.capabilities.Capability;
-import net.minecraftforge.common.capabilities.ICapabilityProvider;
+import net.minecraftforge.common.capabilities.IStaticCapabilityProvider;
 import net.minecraftforge.common.util.LazyOptional;
 import net.minecraftforge.fluids.*;
 import net.minecraftforge.fluids.capability.CapabilityFluidHandler;
@@ -43,11 +43,11 @@ import net.minecraftforge.fluids.capability.IFluidHandler.FluidAction;
  * Additional examples are provided to enable consumable fluid containers (see {@link Consumable}),
  * fluid containers with different empty and full items (see {@link SwapEmpty},
  */
-public class FluidHandlerItemStack implements IFluidHandlerItem, ICapabilityProvider
+public class FluidHandlerItemStack implements IFluidHandlerItem, IStaticCapabilityProvider
 {
     public static final String FLUID_NBT_KEY = "Fluid";
 
-    private final LazyOptional<IFluidHandlerItem> holder = LazyOptional.of(() -> this);
+    private final LazyOptional<IFluidHandlerItem> holder = LazyOptional.ofResolved(this);
 
     @Nonnull
     protected ItemStack container;
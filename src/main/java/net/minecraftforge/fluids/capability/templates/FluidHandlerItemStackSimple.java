@@ -26,7 +26,7 @@ import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.CompoundNBT;
 import net.minecraft.util.Direction;
 import net.minecraftforge.common.capabilities.Capability;
-import net.minecraftforge.common.capabilities.ICapabilityProvider;
+import net.minecraftforge.common.capabilities.IStaticCapabilityProvider;
 import net.minecraftforge.common.util.LazyOptional;
 import net.minecraftforge.fluids.FluidStack;
 import net.minecraftforge.fluids.capability.IFluidHandlerItem;
@@ -40,11 +40,11 @@ import net.minecraftforge.fluids.capability.IFluidHandler.FluidAction;
  *
  * This implementation only allows item containers to be fully filled or emptied, similar to vanilla buckets.
  */
-public class FluidHandlerItemStackSimple implements IFluidHandlerItem, ICapabilityProvider
+public class FluidHandlerItemStackSimple implements IFluidHandlerItem, IStaticCapabilityProvider
 {
     public static final String FLUID_NBT_KEY = "Fluid";
 
-    private final LazyOptional<IFluidHandlerItem> holder = LazyOptional.of(() -> this);
+    private final LazyOptional<IFluidHandlerItem> holder = LazyOptional.ofResolved(this);
 
     @Nonnull
     protected ItemStack container;
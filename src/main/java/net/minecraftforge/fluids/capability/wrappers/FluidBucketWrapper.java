@@ -28,7 +28,7 @@ import net.minecraft.util.Direction;
 import net.minecraft.util.ResourceLocation;
 import net.minecraftforge.common.ForgeMod;
 import net.minecraftforge.common.capabilities.Capability;
-import net.minecraftforge.common.capabilities.ICapabilityProvider;
+import net.minecraftforge.common.capabilities.IStaticCapabilityProvider;
 import net.minecraftforge.common.util.LazyOptional;
 import net.minecraftforge.fluids.FluidAttributes;
 import net.minecraftforge.fluids.FluidStack;
@@ -42,9 +42,9 @@ import net.minecraftforge.fluids.capability.IFluidHandler.FluidAction;
  * Wrapper for vanilla and forge buckets.
  * Swaps between empty bucket and filled bucket of the correct type.
  */
-public class FluidBucketWrapper implements IFluidHandlerItem, ICapabilityProvider
+public class FluidBucketWrapper implements IFluidHandlerItem, IStaticCapabilityProvider
 {
-    private final LazyOptional<IFluidHandlerItem> holder = LazyOptional.of(() -> this);
+    private final LazyOptional<IFluidHandlerItem> holder = LazyOptional.ofResolved(this);
 
     @Nonnull
     protected ItemStack container;
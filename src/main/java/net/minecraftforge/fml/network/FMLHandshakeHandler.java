@@ -21,6 +21,7 @@ package net.minecraftforge.fml.network;
 
 import net.minecraft.network.login.ServerLoginNetHandler;
 import com.google.common.collect.Multimap;
+import io.netty.buffer.Unpooled;
 import net.minecraft.network.NetworkManager;
 import net.minecraft.network.PacketBuffer;
 import net.minecraft.util.ResourceLocation;
@@ -31,6 +32,7 @@ import net.minecraftforge.fml.network.simple.SimpleChannel;
 import net.minecraftforge.fml.util.ThreeConsumer;
 import net.minecraftforge.registries.ForgeRegistry;
 import net.minecraftforge.registries.GameData;
+import net.minecraftforge.registries.RegistryManager;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.Marker;
@@ -112,6 +114,7 @@ public class FMLHandshakeHandler {
     private Map<ResourceLocation, ForgeRegistry.Snapshot> registrySnapshots;
     private Set<ResourceLocation> registriesToReceive;
     private Map<ResourceLocation, String> registryHashes;
+    private volatile boolean modListReplied;
 
     private FMLHandshakeHandler(NetworkManager networkManager, NetworkDirection side)
     {
@@ -179,7 +182,7 @@ public class FMLHandshakeHandler {
             c.get().getNetworkManager().disconnect(new StringTextComponent("Connection closed - mismatched mod channel list"));
             return;
         }
-        FMLNetworkConstants.handshakeChannel.reply(new FMLHandshakeMessages.C2SModListReply(), c.get());
+        FMLNetworkConstants.handshakeChannel.reply(new FMLHandshakeMessages.C2SModListReply(RegistrySnapshotCache.getKnownHashes(serverModList.getRegistries())), c.get());
 
         LOGGER.debug(FMLHSMARKER, "Accepted server connection");
         // Set the modded marker on the channel so we know we got packets
@@ -214,12 +217,75 @@ public class FMLHandshakeHandler {
             return;
         }
         LOGGER.debug(FMLHSMARKER, "Accepted client connection mod list");
+        if (clientModList.acceptsCompressedSnapshots()) {
+            this.registryHashes = new HashMap<>(clientModList.getRegistries());
+            this.registryHashes.remove(FMLHandshakeMessages.COMPRESSED_SNAPSHOTS);
+            upgradeRegistryPayloads();
+        }
+        this.modListReplied = true;
+    }
+
+    /**
+     * Re-encodes the pending registry payloads for a client which understands compressed snapshots, replacing those the
+     * client already holds in its {@link RegistrySnapshotCache} with just their hash.
+     * Only the registry name is read back from each payload, the snapshot itself is the one shared by every connection
+     * through {@link RegistryManager#getSyncSnapshot(ResourceLocation)}, which keeps its compact form, hash and
+     * compressed data until the registry changes.
+     */
+    private void upgradeRegistryPayloads()
+    {
+        int cached = 0;
+        for (int i = 0; i < messageList.size(); i++) {
+            NetworkRegistry.LoginPayload payload = messageList.get(i);
+            if (!isRegistryPayload(payload)) continue;
+
+            PacketBuffer data = new PacketBuffer(payload.getData().slice());
+            data.readUnsignedByte();
+            ResourceLocation name = data.readResourceLocation();
+            if (!data.readBoolean()) continue;
+            ForgeRegistry.Snapshot snapshot = RegistryManager.getSyncSnapshot(name);
+            if (snapshot == null) continue;
+
+            String hash = snapshot.getHash();
+            FMLHandshakeMessages.S2CRegistry upgraded;
+            if (RegistrySnapshotCache.contains(this.registryHashes.get(name), hash)) {
+                upgraded = FMLHandshakeMessages.S2CRegistry.cached(name, hash);
+                cached++;
+            } else {
+                upgraded = FMLHandshakeMessages.S2CRegistry.compressed(name, snapshot);
+            }
+            PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+            FMLNetworkConstants.handshakeChannel.encodeMessage(upgraded, buffer);
+            LOGGER.debug(REGISTRIES, "Registry {} payload {} -> {} bytes", name, payload.getData().readableBytes(), buffer.readableBytes());
+            messageList.set(i, new NetworkRegistry.LoginPayload(buffer, payload.getChannelName(), payload.getMessageContext()));
+        }
+        LOGGER.debug(FMLHSMARKER, "Client has {} registry snapshots cached", cached);
+    }
+
+    private static boolean isRegistryPayload(NetworkRegistry.LoginPayload payload)
+    {
+        PacketBuffer data = payload.getData();
+        return FMLNetworkConstants.FML_HANDSHAKE_RESOURCE.equals(payload.getChannelName()) &&
+                data.isReadable() && data.getUnsignedByte(data.readerIndex()) == NetworkInitialization.REGISTRY_INDEX;
     }
 
     void handleRegistryMessage(final FMLHandshakeMessages.S2CRegistry registryPacket, final Supplier<NetworkEvent.Context> contextSupplier){
         LOGGER.debug(FMLHSMARKER,"Received registry packet for {}", registryPacket.getRegistryName());
+        ForgeRegistry.Snapshot snapshot = registryPacket.getSnapshot();
+        String cachedHash = registryPacket.getCachedHash();
+        if (cachedHash != null) {
+            snapshot = RegistrySnapshotCache.load(registryPacket.getRegistryName(), cachedHash);
+            if (snapshot == null) {
+                contextSupplier.get().setPacketHandled(true);
+                LOGGER.error(FMLHSMARKER, "Server sent cached registry snapshot {} for {} which is no longer available", cachedHash, registryPacket.getRegistryName());
+                this.manager.disconnect(new StringTextComponent("Connection closed - cached registry data missing, please reconnect"));
+                return;
+            }
+        } else if (registryPacket.isCompressed()) {
+            RegistrySnapshotCache.store(registryPacket.getRegistryName(), snapshot);
+        }
         this.registriesToReceive.remove(registryPacket.getRegistryName());
-        this.registrySnapshots.put(registryPacket.getRegistryName(), registryPacket.getSnapshot());
+        this.registrySnapshots.put(registryPacket.getRegistryName(), snapshot);
 
         boolean continueHandshake = true;
         if (this.registriesToReceive.isEmpty()) {
@@ -288,7 +354,8 @@ public class FMLHandshakeHandler {
      */
     public boolean tickServer()
     {
-        if (packetPosition < messageList.size()) {
+        // Registry payloads depend on the snapshots the client reports, so hold them back until its mod list reply arrives
+        if (packetPosition < messageList.size() && (modListReplied || !isRegistryPayload(messageList.get(packetPosition)))) {
             NetworkRegistry.LoginPayload message = messageList.get(packetPosition);
 
             LOGGER.debug(FMLHSMARKER, "Sending ticking packet info '{}' to '{}' sequence {}", message.getMessageContext(), message.getChannelName(), packetPosition);
@@ -19,6 +19,7 @@
 
 package net.minecraftforge.fml.network;
 
+import io.netty.handler.codec.DecoderException;
 import net.minecraft.network.PacketBuffer;
 import net.minecraft.util.ResourceLocation;
 import net.minecraftforge.fml.ModList;
@@ -40,6 +41,12 @@ import com.google.common.collect.Maps;
 
 public class FMLHandshakeMessages
 {
+    /**
+     * Marker entry in {@link C2SModListReply#getRegistries()}, sent by clients which understand compressed and cached
+     * {@link S2CRegistry} snapshots.
+     */
+    static final ResourceLocation COMPRESSED_SNAPSHOTS = new ResourceLocation("fml", "compressed_snapshots");
+
     static class LoginIndexedMessage implements IntSupplier
     {
         private int loginIndex;
@@ -135,10 +142,21 @@ public class FMLHandshakeMessages
         private Map<ResourceLocation, String> registries;
 
         public C2SModListReply()
+        {
+            this(Maps.newHashMap());
+        }
+
+        /**
+         * @param knownHashes comma separated hashes of registry snapshots the client has cached from earlier sessions. The
+         *                    {@link #COMPRESSED_SNAPSHOTS} marker is added so the server knows it may use the compressed
+         *                    snapshot format, servers which do not know it simply ignore the extra entry.
+         */
+        public C2SModListReply(Map<ResourceLocation, String> knownHashes)
         {
             this.mods = ModList.get().getMods().stream().map(ModInfo::getModId).collect(Collectors.toList());
             this.channels = NetworkRegistry.buildChannelVersions();
-            this.registries = Maps.newHashMap(); //TODO: Fill with known hashes, which requires keeping a file cache
+            this.registries = Maps.newHashMap(knownHashes);
+            this.registries.put(COMPRESSED_SNAPSHOTS, "1");
         }
 
         private C2SModListReply(List<String> mods, Map<ResourceLocation, String> channels, Map<ResourceLocation, String> registries)
@@ -197,6 +215,10 @@ public class FMLHandshakeMessages
         public Map<ResourceLocation, String> getChannels() {
             return this.channels;
         }
+
+        public boolean acceptsCompressedSnapshots() {
+            return this.registries.containsKey(COMPRESSED_SNAPSHOTS);
+        }
     }
 
     public static class C2SAcknowledge extends LoginIndexedMessage {
@@ -210,28 +232,70 @@ public class FMLHandshakeMessages
     }
 
     public static class S2CRegistry extends LoginIndexedMessage {
+        // The first two match the boolean written by older versions, the others are only sent to clients which asked for them
+        private static final byte NO_SNAPSHOT = 0;
+        private static final byte SNAPSHOT = 1;
+        private static final byte COMPRESSED = 2;
+        private static final byte CACHED = 3;
+
         private ResourceLocation registryName;
         @Nullable
         private ForgeRegistry.Snapshot snapshot;
+        private byte format;
+        @Nullable
+        private String hash;
 
         public S2CRegistry(final ResourceLocation name, @Nullable ForgeRegistry.Snapshot snapshot) {
+            this(name, snapshot, snapshot == null ? NO_SNAPSHOT : SNAPSHOT, null);
+        }
+
+        private S2CRegistry(final ResourceLocation name, @Nullable ForgeRegistry.Snapshot snapshot, byte format, @Nullable String hash) {
             this.registryName = name;
             this.snapshot = snapshot;
+            this.format = format;
+            this.hash = hash;
+        }
+
+        /**
+         * The snapshot in the compact deflated format, see {@link ForgeRegistry.Snapshot#writeCompressed(PacketBuffer)}.
+         */
+        static S2CRegistry compressed(final ResourceLocation name, ForgeRegistry.Snapshot snapshot) {
+            return new S2CRegistry(name, snapshot, COMPRESSED, null);
+        }
+
+        /**
+         * Only the hash of the snapshot, for a client which reported holding it in its {@link RegistrySnapshotCache}.
+         */
+        static S2CRegistry cached(final ResourceLocation name, String hash) {
+            return new S2CRegistry(name, null, CACHED, hash);
         }
 
         void encode(final PacketBuffer buffer) {
             buffer.writeResourceLocation(registryName);
-            buffer.writeBoolean(hasSnapshot());
-            if (hasSnapshot())
+            buffer.writeByte(format);
+            if (format == SNAPSHOT)
                 buffer.writeBytes(snapshot.getPacketData());
+            else if (format == COMPRESSED)
+                snapshot.writeCompressed(buffer);
+            else if (format == CACHED)
+                buffer.writeUtf(hash, 0x100);
         }
 
         public static S2CRegistry decode(final PacketBuffer buffer) {
             ResourceLocation name = buffer.readResourceLocation();
-            ForgeRegistry.Snapshot snapshot = null;
-            if (buffer.readBoolean())
-                snapshot = ForgeRegistry.Snapshot.read(buffer);
-            return new S2CRegistry(name, snapshot);
+            byte format = buffer.readByte();
+            switch (format) {
+                case NO_SNAPSHOT:
+                    return new S2CRegistry(name, null);
+                case SNAPSHOT:
+                    return new S2CRegistry(name, ForgeRegistry.Snapshot.read(buffer));
+                case COMPRESSED:
+                    return compressed(name, ForgeRegistry.Snapshot.readCompressed(buffer));
+                case CACHED:
+                    return cached(name, buffer.readUtf(0x100));
+                default:
+                    throw new DecoderException("Unknown registry snapshot format " + format + " for " + name);
+            }
         }
 
         public ResourceLocation getRegistryName() {
@@ -246,6 +310,18 @@ public class FMLHandshakeMessages
         public ForgeRegistry.Snapshot getSnapshot() {
             return snapshot;
         }
+
+        boolean isCompressed() {
+            return format == COMPRESSED;
+        }
+
+        /**
+         * @return the hash of a snapshot the client is expected to load from its cache, or null if the snapshot was sent
+         */
+        @Nullable
+        String getCachedHash() {
+            return format == CACHED ? hash : null;
+        }
     }
 
 
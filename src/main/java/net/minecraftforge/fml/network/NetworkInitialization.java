@@ -28,6 +28,7 @@ import java.util.Arrays;
 import java.util.List;
 
 class NetworkInitialization {
+    static final int REGISTRY_INDEX = 3;
 
     public static SimpleChannel getHandshakeChannel() {
         SimpleChannel handshakeChannel = NetworkRegistry.ChannelBuilder.
@@ -59,11 +60,11 @@ class NetworkInitialization {
                 consumer(FMLHandshakeHandler.indexFirst(FMLHandshakeHandler::handleClientModListOnServer)).
                 add();
 
-        handshakeChannel.messageBuilder(FMLHandshakeMessages.S2CRegistry.class, 3, NetworkDirection.LOGIN_TO_CLIENT).
+        handshakeChannel.messageBuilder(FMLHandshakeMessages.S2CRegistry.class, REGISTRY_INDEX, NetworkDirection.LOGIN_TO_CLIENT).
                 loginIndex(FMLHandshakeMessages.LoginIndexedMessage::getLoginIndex, FMLHandshakeMessages.LoginIndexedMessage::setLoginIndex).
                 decoder(FMLHandshakeMessages.S2CRegistry::decode).
                 encoder(FMLHandshakeMessages.S2CRegistry::encode).
-                buildLoginPacketList(RegistryManager::generateRegistryPackets). //TODO: Make this non-static, and store a cache on the client.
+                buildLoginPacketList(RegistryManager::generateRegistryPackets).
                 consumer(FMLHandshakeHandler.biConsumerFor(FMLHandshakeHandler::handleRegistryMessage)).
                 add();
 
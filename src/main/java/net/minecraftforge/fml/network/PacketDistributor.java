@@ -29,6 +29,8 @@ import net.minecraft.util.RegistryKey;
 import net.minecraft.world.World;
 import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.server.ServerChunkProvider;
+import net.minecraft.world.server.ServerWorld;
+import net.minecraftforge.common.world.PlayerSpatialIndex;
 import net.minecraftforge.fml.LogicalSide;
 import net.minecraftforge.fml.LogicalSidedProvider;
 
@@ -217,7 +219,14 @@ public class PacketDistributor<T> {
         return p -> entityPlayerMPSupplier.get().connection.connection.send(p);
     }
     private Consumer<IPacket<?>> playerListDimConsumer(final Supplier<RegistryKey<World>> dimensionTypeSupplier) {
-        return p->getServer().getPlayerList().broadcastAll(p, dimensionTypeSupplier.get());
+        return p-> {
+            final MinecraftServer server = getServer();
+            final ServerWorld world = server.isSameThread() ? server.getLevel(dimensionTypeSupplier.get()) : null;
+            if (world != null)
+                world.players().forEach(e -> e.connection.send(p));
+            else
+                server.getPlayerList().broadcastAll(p, dimensionTypeSupplier.get());
+        };
     }
 
     private Consumer<IPacket<?>> playerListAll(final Supplier<Void> voidSupplier) {
@@ -231,7 +240,12 @@ public class PacketDistributor<T> {
     private Consumer<IPacket<?>> playerListPointConsumer(final Supplier<TargetPoint> targetPointSupplier) {
         return p -> {
             final TargetPoint tp = targetPointSupplier.get();
-            getServer().getPlayerList().broadcast(tp.excluded, tp.x, tp.y, tp.z, tp.r2, tp.dim, p);
+            final MinecraftServer server = getServer();
+            final ServerWorld world = server.isSameThread() ? server.getLevel(tp.dim) : null;
+            if (world != null)
+                PlayerSpatialIndex.get(world).forEachNear(tp.x, tp.y, tp.z, tp.r2, tp.excluded, e -> e.connection.send(p));
+            else
+                server.getPlayerList().broadcast(tp.excluded, tp.x, tp.y, tp.z, tp.r2, tp.dim, p);
         };
     }
 
@@ -252,7 +266,10 @@ public class PacketDistributor<T> {
     private Consumer<IPacket<?>> trackingChunk(final Supplier<Chunk> chunkPosSupplier) {
         return p -> {
             final Chunk chunk = chunkPosSupplier.get();
-            ((ServerChunkProvider)chunk.getLevel().getChunkSource()).chunkMap.getPlayers(chunk.getPos(), false).forEach(e -> e.connection.send(p));
+            if (chunk.getLevel() instanceof ServerWorld && getServer().isSameThread())
+                PlayerSpatialIndex.get((ServerWorld)chunk.getLevel()).forEachTracking(chunk.getPos(), false, e -> e.connection.send(p));
+            else
+                ((ServerChunkProvider)chunk.getLevel().getChunkSource()).chunkMap.getPlayers(chunk.getPos(), false).forEach(e -> e.connection.send(p));
         };
     }
 
@@ -0,0 +1,191 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2021.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.fml.network;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.hash.Hashing;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.fml.loading.FMLPaths;
+import net.minecraftforge.registries.ForgeRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static net.minecraftforge.fml.network.FMLHandshakeHandler.FMLHSMARKER;
+
+/**
+ * Client side store of registry snapshots received from servers, keyed by their {@link ForgeRegistry.Snapshot#getHash() hash}.
+ *
+ * <p>The hashes of the cached snapshots of each registry are offered back to the server during the handshake, which then only
+ * sends the hash when one of them matches its own data. A few snapshots are kept per registry so switching between servers
+ * stays cheap.
+ *
+ * <p>Registry names and hashes come from the server, so neither is used as a path directly: registries are stored under
+ * a hash of their name and only well formed snapshot hashes are looked up.
+ */
+class RegistrySnapshotCache
+{
+    private static final Logger LOGGER = LogManager.getLogger();
+    // All hashes of a registry are sent as one string of at most 0x100 characters, which fits three SHA-256 hashes
+    private static final int MAX_PER_REGISTRY = 3;
+    private static final String EXTENSION = ".bin";
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final Joiner HASH_JOINER = Joiner.on(',');
+    private static final Splitter HASH_SPLITTER = Splitter.on(',');
+
+    private static Path getDirectory(ResourceLocation registry)
+    {
+        return FMLPaths.GAMEDIR.get().resolve("registrycache").resolve(Hashing.sha256().hashString(registry.toString(), StandardCharsets.UTF_8).toString());
+    }
+
+    /**
+     * @return the hashes of all cached snapshots for each of the given registries that has any, most recently used first
+     *         and joined by commas, see {@link #contains(String, String)}
+     */
+    static Map<ResourceLocation, String> getKnownHashes(Collection<ResourceLocation> registries)
+    {
+        Map<ResourceLocation, String> ret = new HashMap<>();
+        for (ResourceLocation registry : registries)
+        {
+            List<Path> files = list(registry);
+            if (!files.isEmpty())
+                ret.put(registry, HASH_JOINER.join(files.stream().limit(MAX_PER_REGISTRY).map(RegistrySnapshotCache::hashOf).iterator()));
+        }
+        return ret;
+    }
+
+    /**
+     * @return whether the hashes a client reported for a registry include the given one
+     */
+    static boolean contains(@Nullable String knownHashes, String hash)
+    {
+        return knownHashes != null && HASH_SPLITTER.splitToList(knownHashes).contains(hash);
+    }
+
+    @Nullable
+    static ForgeRegistry.Snapshot load(ResourceLocation registry, String hash)
+    {
+        if (!HASH.matcher(hash).matches())
+            return null;
+        Path file = getDirectory(registry).resolve(hash + EXTENSION);
+        if (!Files.exists(file))
+            return null;
+        try
+        {
+            ForgeRegistry.Snapshot snapshot = ForgeRegistry.Snapshot.readCompressed(new PacketBuffer(Unpooled.wrappedBuffer(Files.readAllBytes(file))));
+            if (!hash.equals(snapshot.getHash()))
+            {
+                LOGGER.warn(FMLHSMARKER, "Cached registry snapshot {} for {} is corrupt, discarding", hash, registry);
+                Files.deleteIfExists(file);
+                return null;
+            }
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return snapshot;
+        }
+        catch (IOException | RuntimeException e)
+        {
+            LOGGER.warn(FMLHSMARKER, "Failed to read cached registry snapshot {} for {}", hash, registry, e);
+            return null;
+        }
+    }
+
+    static void store(ResourceLocation registry, ForgeRegistry.Snapshot snapshot)
+    {
+        Path dir = getDirectory(registry);
+        try
+        {
+            Files.createDirectories(dir);
+            PacketBuffer data = new PacketBuffer(Unpooled.buffer());
+            snapshot.writeCompressed(data);
+            byte[] bytes = new byte[data.readableBytes()];
+            data.readBytes(bytes);
+
+            Path tmp = Files.createTempFile(dir, "snapshot", ".tmp");
+            Files.write(tmp, bytes);
+            Files.move(tmp, dir.resolve(snapshot.getHash() + EXTENSION), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            List<Path> files = list(registry);
+            for (Path old : files.subList(Math.min(files.size(), MAX_PER_REGISTRY), files.size()))
+                Files.deleteIfExists(old);
+        }
+        catch (IOException e)
+        {
+            LOGGER.warn(FMLHSMARKER, "Failed to cache registry snapshot for {}", registry, e);
+        }
+    }
+
+    /**
+     * @return cached snapshot files for the registry, most recently used first
+     */
+    private static List<Path> list(ResourceLocation registry)
+    {
+        Path dir = getDirectory(registry);
+        if (!Files.isDirectory(dir))
+            return Collections.emptyList();
+        try (Stream<Path> files = Files.list(dir))
+        {
+            return files.filter(p -> p.getFileName().toString().endsWith(EXTENSION) && HASH.matcher(hashOf(p)).matches())
+                    .sorted(Comparator.comparing(RegistrySnapshotCache::lastModified).reversed())
+                    .collect(Collectors.toList());
+        }
+        catch (IOException e)
+        {
+            LOGGER.warn(FMLHSMARKER, "Failed to list cached registry snapshots for {}", registry, e);
+            return Collections.emptyList();
+        }
+    }
+
+    private static FileTime lastModified(Path file)
+    {
+        try
+        {
+            return Files.getLastModifiedTime(file);
+        }
+        catch (IOException e)
+        {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static String hashOf(Path file)
+    {
+        String name = file.getFileName().toString();
+        return name.substring(0, name.length() - EXTENSION.length());
+    }
+}
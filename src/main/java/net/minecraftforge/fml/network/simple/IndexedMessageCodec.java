@@ -44,6 +44,12 @@ public class IndexedMessageCodec
     private final Short2ObjectArrayMap<MessageHandler<?>> indicies = new Short2ObjectArrayMap<>();
     private final Object2ObjectArrayMap<Class<?>, MessageHandler<?>> types = new Object2ObjectArrayMap<>();
     private final NetworkInstance networkInstance;
+    private boolean batching;
+
+    /**
+     * The discriminator reserved for batched payloads once {@link #enableBatching()} has been called.
+     */
+    static final short BATCH_INDEX = 0xff;
 
     public IndexedMessageCodec() {
         this(null);
@@ -84,6 +90,9 @@ public class IndexedMessageCodec
             this.networkDirection = networkDirection;
             this.loginIndexGetter = Optional.empty();
             this.loginIndexSetter = Optional.empty();
+            if (batching && (index & 0xff) == BATCH_INDEX) {
+                throw new IllegalArgumentException("Index "+BATCH_INDEX+" is reserved for batched messages on channel "+Optional.ofNullable(networkInstance).map(NetworkInstance::getChannelName).map(Objects::toString).orElse("MISSING CHANNEL"));
+            }
             indicies.put((short)(index & 0xff), this);
             types.put(messageType, this);
         }
@@ -147,11 +156,38 @@ public class IndexedMessageCodec
         return tryEncode(target, message, messageHandler);
     }
 
+    /**
+     * Reserves {@link #BATCH_INDEX} for payloads holding several length prefixed messages.
+     * Both sides of the channel must enable batching for batched payloads to be understood.
+     */
+    void enableBatching() {
+        if (indicies.containsKey(BATCH_INDEX)) {
+            throw new IllegalStateException("Index "+BATCH_INDEX+" is already registered, it is required for batching on channel "+Optional.ofNullable(networkInstance).map(NetworkInstance::getChannelName).map(Objects::toString).orElse("MISSING CHANNEL"));
+        }
+        this.batching = true;
+    }
+
+    boolean isBatching() {
+        return this.batching;
+    }
+
     void consume(PacketBuffer payload, int payloadIndex, Supplier<NetworkEvent.Context> context) {
         if (payload == null) {
             LOGGER.error(SIMPLENET, "Received empty payload on channel {}", Optional.ofNullable(networkInstance).map(NetworkInstance::getChannelName).map(Objects::toString).orElse("MISSING CHANNEL"));
             return;
         }
+        if (batching && payload.getUnsignedByte(payload.readerIndex()) == BATCH_INDEX) {
+            payload.skipBytes(1);
+            while (payload.isReadable()) {
+                int length = payload.readVarInt();
+                consumeSingle(new PacketBuffer(payload.readSlice(length)), payloadIndex, context);
+            }
+            return;
+        }
+        consumeSingle(payload, payloadIndex, context);
+    }
+
+    private void consumeSingle(PacketBuffer payload, int payloadIndex, Supplier<NetworkEvent.Context> context) {
         short discriminator = payload.readUnsignedByte();
         final MessageHandler<?> messageHandler = indicies.get(discriminator);
         if (messageHandler == null) {
@@ -19,19 +19,28 @@
 
 package net.minecraftforge.fml.network.simple;
 
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import net.minecraft.client.Minecraft;
 import net.minecraft.network.NetworkManager;
 import net.minecraft.network.IPacket;
 import net.minecraft.network.PacketBuffer;
 import net.minecraft.util.text.StringTextComponent;
+import net.minecraftforge.fml.LogicalSide;
 import net.minecraftforge.fml.network.*;
 import org.apache.commons.lang3.tuple.Pair;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -41,10 +50,16 @@ import java.util.function.Supplier;
 @SuppressWarnings("OptionalUsedAsFieldOrParameterType")
 public class SimpleChannel
 {
+    private static final Set<SimpleChannel> BATCHING_CHANNELS = new CopyOnWriteArraySet<>();
+    // Leave room for the discriminator and length prefix of the vanilla custom payload packets
+    private static final int MAX_BATCH_TO_CLIENT = 1048576 - 16;
+    private static final int MAX_BATCH_TO_SERVER = 32767 - 16;
+
     private final NetworkInstance instance;
     private final IndexedMessageCodec indexedCodec;
     private final Optional<Consumer<NetworkEvent.ChannelRegistrationChangeEvent>> registryChangeConsumer;
     private List<Function<Boolean, ? extends List<? extends Pair<String,?>>>> loginPackets;
+    private final Map<NetworkManager, MessageBatch> batches = new HashMap<>();
 
     public SimpleChannel(NetworkInstance instance) {
         this(instance, Optional.empty());
@@ -124,11 +139,165 @@ public class SimpleChannel
         target.send(toVanillaPacket(message, target.getDirection()));
     }
 
+    /**
+     * Send a message to several {@link PacketDistributor.PacketTarget}s, encoding it only once per direction.
+     * Prefer this over calling {@link #send(PacketDistributor.PacketTarget, Object)} in a loop.
+     *
+     * @param targets The curried targets from PacketDistributors
+     * @param message The message to send
+     * @param <MSG> The type of the message
+     */
+    public <MSG> void send(Iterable<PacketDistributor.PacketTarget> targets, MSG message) {
+        IPacket<?>[] packets = new IPacket<?>[NetworkDirection.values().length];
+        for (PacketDistributor.PacketTarget target : targets) {
+            int direction = target.getDirection().ordinal();
+            if (packets[direction] == null)
+                packets[direction] = toVanillaPacket(message, target.getDirection());
+            target.send(packets[direction]);
+        }
+    }
+
     public <MSG> IPacket<?> toVanillaPacket(MSG message, NetworkDirection direction)
     {
         return direction.buildPacket(toBuffer(message), instance.getChannelName()).getThis();
     }
 
+    /**
+     * Enables batching on this channel, reserving index 255 for batched payloads.
+     * This must be called on both sides, before registering messages, for batched messages to be understood.
+     *
+     * @see #sendBatched(Object, NetworkManager, NetworkDirection, Object)
+     * @return this
+     */
+    public SimpleChannel enableBatching() {
+        this.indexedCodec.enableBatching();
+        BATCHING_CHANNELS.add(this);
+        return this;
+    }
+
+    public <MSG> void sendBatched(MSG message, NetworkManager manager, NetworkDirection direction)
+    {
+        sendBatched(message, manager, direction, null);
+    }
+
+    /**
+     * Queue a message to be sent at the end of the current tick, packed together with every other message
+     * queued on this channel for the same connection into as few custom payload packets as possible.
+     * <p>
+     * Batched messages are sent after any message sent directly during the same tick.
+     *
+     * @param message The message to send
+     * @param manager The connection to send the message on
+     * @param direction The direction to send in, must be a play direction
+     * @param coalesceKey If not null, any message queued earlier this tick with an equal key on the same connection is
+     *                    dropped in favour of this one
+     * @param <MSG> The type of the message
+     */
+    public <MSG> void sendBatched(MSG message, NetworkManager manager, NetworkDirection direction, @Nullable Object coalesceKey)
+    {
+        if (!this.indexedCodec.isBatching())
+            throw new IllegalStateException("Batching is not enabled on channel " + instance.getChannelName());
+        if (direction != NetworkDirection.PLAY_TO_CLIENT && direction != NetworkDirection.PLAY_TO_SERVER)
+            throw new IllegalArgumentException("Only play messages can be batched, not " + direction);
+        synchronized (this.batches)
+        {
+            this.batches.computeIfAbsent(manager, m -> new MessageBatch(direction)).add(message, coalesceKey);
+        }
+    }
+
+    /**
+     * Sends every message batched on this channel from the given side.
+     */
+    public void flushBatched(LogicalSide side)
+    {
+        List<Pair<NetworkManager, MessageBatch>> toSend = new ArrayList<>();
+        synchronized (this.batches)
+        {
+            Iterator<Map.Entry<NetworkManager, MessageBatch>> itr = this.batches.entrySet().iterator();
+            while (itr.hasNext())
+            {
+                Map.Entry<NetworkManager, MessageBatch> entry = itr.next();
+                if (entry.getValue().direction.getOriginationSide() == side)
+                {
+                    toSend.add(Pair.of(entry.getKey(), entry.getValue()));
+                    itr.remove();
+                }
+            }
+        }
+        for (Pair<NetworkManager, MessageBatch> pair : toSend)
+        {
+            if (pair.getLeft().isConnected())
+                pair.getRight().send(pair.getLeft());
+        }
+    }
+
+    //Internal only, called at the end of every tick on the given side.
+    public static void flushAllBatched(LogicalSide side)
+    {
+        for (SimpleChannel channel : BATCHING_CHANNELS)
+            channel.flushBatched(side);
+    }
+
+    private class MessageBatch
+    {
+        private final NetworkDirection direction;
+        // Unkeyed messages get a unique key so they are never coalesced
+        private final LinkedHashMap<Object, Object> messages = new LinkedHashMap<>();
+
+        private MessageBatch(NetworkDirection direction)
+        {
+            this.direction = direction;
+        }
+
+        private void add(Object message, @Nullable Object coalesceKey)
+        {
+            Object key = coalesceKey == null ? new Object() : coalesceKey;
+            // Remove first so a replacement moves to the end and stays ordered after earlier messages
+            this.messages.remove(key);
+            this.messages.put(key, message);
+        }
+
+        private void send(NetworkManager manager)
+        {
+            final int limit = direction == NetworkDirection.PLAY_TO_CLIENT ? MAX_BATCH_TO_CLIENT : MAX_BATCH_TO_SERVER;
+            final PacketBuffer single = new PacketBuffer(PooledByteBufAllocator.DEFAULT.directBuffer());
+            PacketBuffer batch = null;
+            try
+            {
+                for (Object message : this.messages.values())
+                {
+                    single.clear();
+                    encodeMessage(message, single);
+                    int length = single.readableBytes();
+                    if (length + 5 + 1 > limit)
+                    {
+                        // Too big to share a payload, send it on its own.
+                        manager.send(direction.buildPacket(Pair.of(new PacketBuffer(Unpooled.copiedBuffer(single)), Integer.MIN_VALUE), instance.getChannelName()).getThis());
+                        continue;
+                    }
+                    if (batch != null && batch.readableBytes() + length + 5 > limit)
+                    {
+                        manager.send(direction.buildPacket(Pair.of(batch, Integer.MIN_VALUE), instance.getChannelName()).getThis());
+                        batch = null;
+                    }
+                    if (batch == null)
+                    {
+                        batch = new PacketBuffer(Unpooled.buffer());
+                        batch.writeByte(IndexedMessageCodec.BATCH_INDEX);
+                    }
+                    batch.writeVarInt(length);
+                    batch.writeBytes(single);
+                }
+                if (batch != null)
+                    manager.send(direction.buildPacket(Pair.of(batch, Integer.MIN_VALUE), instance.getChannelName()).getThis());
+            }
+            finally
+            {
+                single.release();
+            }
+        }
+    }
+
     public <MSG> void reply(MSG msgToReply, NetworkEvent.Context context)
     {
         context.getPacketDispatcher().sendPacket(instance.getChannelName(), toBuffer(msgToReply).getLeft());
@@ -23,6 +23,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -42,6 +43,8 @@ public class DelegatingResourcePack extends ResourcePack
     private final List<IResourcePack> delegates;
     private final Map<String, List<IResourcePack>> namespacesAssets;
     private final Map<String, List<IResourcePack>> namespacesData;
+    // First pack providing each resource looked up or listed so far, empty if no pack has it. Reset when closed for a reload.
+    private final Map<ResourcePackType, Map<ResourceLocation, Optional<IResourcePack>>> owners = new EnumMap<>(ResourcePackType.class);
 
     private final String name;
     private final PackMetadataSection packInfo;
@@ -54,6 +57,8 @@ public class DelegatingResourcePack extends ResourcePack
         this.delegates = ImmutableList.copyOf(packs);
         this.namespacesAssets = this.buildNamespaceMap(ResourcePackType.CLIENT_RESOURCES, delegates);
         this.namespacesData = this.buildNamespaceMap(ResourcePackType.SERVER_DATA, delegates);
+        for (ResourcePackType type : ResourcePackType.values())
+            this.owners.put(type, new ConcurrentHashMap<>());
     }
 
     private Map<String, List<IResourcePack>> buildNamespaceMap(ResourcePackType type, List<IResourcePack> packList)
@@ -90,9 +95,33 @@ public class DelegatingResourcePack extends ResourcePack
     @Override
     public Collection<ResourceLocation> getResources(ResourcePackType type, String pathIn, String pathIn2, int maxDepth, Predicate<String> filter)
     {
-        return delegates.stream()
-                .flatMap(r -> r.getResources(type, pathIn, pathIn2, maxDepth, filter).stream())
+        List<IResourcePack> candidates = getCandidatePacks(type, pathIn);
+        if (candidates.isEmpty())
+            return Collections.emptyList();
+        if (candidates.size() == 1)
+        {
+            Collection<ResourceLocation> ret = candidates.get(0).getResources(type, pathIn, pathIn2, maxDepth, filter);
+            Optional<IResourcePack> owner = Optional.of(candidates.get(0));
+            ret.forEach(rl -> this.owners.get(type).putIfAbsent(rl, owner));
+            return ret;
+        }
+
+        // Listing is independent per pack, gather in parallel but keep pack order so the first pack still owns a resource
+        List<Collection<ResourceLocation>> listed = candidates.parallelStream()
+                .map(r -> r.getResources(type, pathIn, pathIn2, maxDepth, filter))
                 .collect(Collectors.toList());
+        Map<ResourceLocation, Optional<IResourcePack>> owners = this.owners.get(type);
+        List<ResourceLocation> ret = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++)
+        {
+            Optional<IResourcePack> owner = Optional.of(candidates.get(i));
+            for (ResourceLocation rl : listed.get(i))
+            {
+                owners.putIfAbsent(rl, owner);
+                ret.add(rl);
+            }
+        }
+        return ret;
     }
 
     @Override
@@ -104,6 +133,7 @@ public class DelegatingResourcePack extends ResourcePack
     @Override
     public void close()
     {
+        this.owners.values().forEach(Map::clear);
         for (IResourcePack pack : delegates)
         {
             pack.close();
@@ -134,12 +164,10 @@ public class DelegatingResourcePack extends ResourcePack
     @Override
     public InputStream getResource(ResourcePackType type, ResourceLocation location) throws IOException
     {
-        for (IResourcePack pack : getCandidatePacks(type, location))
+        Optional<IResourcePack> pack = getOwner(type, location);
+        if (pack.isPresent())
         {
-            if (pack.hasResource(type, location))
-            {
-                return pack.getResource(type, location);
-            }
+            return pack.get().getResource(type, location);
         }
         throw new ResourcePackFileNotFoundException(this.file, getFullPath(type, location));
     }
@@ -147,20 +175,35 @@ public class DelegatingResourcePack extends ResourcePack
     @Override
     public boolean hasResource(ResourcePackType type, ResourceLocation location)
     {
-        for (IResourcePack pack : getCandidatePacks(type, location))
+        return getOwner(type, location).isPresent();
+    }
+
+    private Optional<IResourcePack> getOwner(ResourcePackType type, ResourceLocation location)
+    {
+        Map<ResourceLocation, Optional<IResourcePack>> owners = this.owners.get(type);
+        Optional<IResourcePack> ret = owners.get(location);
+        if (ret == null)
         {
-            if (pack.hasResource(type, location))
+            ret = Optional.empty();
+            for (IResourcePack pack : getCandidatePacks(type, location.getNamespace()))
             {
-                return true;
+                if (pack.hasResource(type, location))
+                {
+                    ret = Optional.of(pack);
+                    break;
+                }
             }
+            Optional<IResourcePack> raced = owners.putIfAbsent(location, ret);
+            if (raced != null)
+                ret = raced;
         }
-        return false;
+        return ret;
     }
 
-    private List<IResourcePack> getCandidatePacks(ResourcePackType type, ResourceLocation location)
+    private List<IResourcePack> getCandidatePacks(ResourcePackType type, String namespace)
     {
         Map<String, List<IResourcePack>> map = type == ResourcePackType.CLIENT_RESOURCES ? namespacesAssets : namespacesData;
-        List<IResourcePack> packsWithNamespace = map.get(location.getNamespace());
+        List<IResourcePack> packsWithNamespace = map.get(namespace);
         return packsWithNamespace == null ? Collections.emptyList() : packsWithNamespace;
     }
 
@@ -32,23 +32,44 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
+
 import com.google.common.base.Joiner;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 public class ModFileResourcePack extends ResourcePack
 {
+    private static final Logger LOGGER = LogManager.getLogger();
     private final ModFile modFile;
     private ResourcePackInfo packInfo;
+    // Exploded mod directories are not indexed, so resources edited in a development environment are picked up on reload
+    private final boolean indexed;
+    private volatile ResourceIndex index;
 
     public ModFileResourcePack(final ModFile modFile)
     {
         super(new File("dummy"));
         this.modFile = modFile;
+        this.indexed = modFile.getLocator().findPath(modFile, "").getFileSystem() != FileSystems.getDefault();
     }
 
     public ModFile getModFile() {
@@ -65,7 +86,9 @@ public class ModFileResourcePack extends ResourcePack
     protected InputStream getResource(String name) throws IOException
     {
         final Path path = modFile.getLocator().findPath(modFile, name);
-        if(!Files.exists(path))
+        ResourceIndex index = getIndex();
+        Boolean indexedResult = index == null ? null : index.contains(name);
+        if (indexedResult != null ? !indexedResult : !Files.exists(path))
             throw new ResourcePackFileNotFoundException(modFile.getFilePath().toFile(), name);
         return Files.newInputStream(path, StandardOpenOption.READ);
     }
@@ -73,13 +96,36 @@ public class ModFileResourcePack extends ResourcePack
     @Override
     protected boolean hasResource(String name)
     {
-        return Files.exists(modFile.getLocator().findPath(modFile, name));
+        ResourceIndex index = getIndex();
+        Boolean indexedResult = index == null ? null : index.contains(name);
+        return indexedResult != null ? indexedResult : Files.exists(modFile.getLocator().findPath(modFile, name));
+    }
+
+    @Nullable
+    private ResourceIndex getIndex()
+    {
+        if (!indexed)
+            return null;
+        ResourceIndex ret = this.index;
+        if (ret == null)
+        {
+            synchronized (this)
+            {
+                ret = this.index;
+                if (ret == null)
+                    this.index = ret = ResourceIndex.build(modFile);
+            }
+        }
+        return ret;
     }
 
 
     @Override
     public Collection<ResourceLocation> getResources(ResourcePackType type, String resourceNamespace, String pathIn, int maxDepth, Predicate<String> filter)
     {
+        ResourceIndex index = getIndex();
+        if (index != null)
+            return index.getResources(type, resourceNamespace, pathIn, maxDepth, filter);
         try
         {
             Path root = modFile.getLocator().findPath(modFile, type.getDirectory(), resourceNamespace).toAbsolutePath();
@@ -106,6 +152,14 @@ public class ModFileResourcePack extends ResourcePack
     @Override
     public Set<String> getNamespaces(ResourcePackType type)
     {
+        ResourceIndex index = getIndex();
+        if (index != null)
+        {
+            Set<String> namespaces = index.getNamespaces(type);
+            if (namespaces == null) //Same fallback as below, langs are loaded from assets on the server
+                return type == ResourcePackType.SERVER_DATA ? this.getNamespaces(ResourcePackType.CLIENT_RESOURCES) : Collections.emptySet();
+            return namespaces;
+        }
         try {
             Path root = modFile.getLocator().findPath(modFile, type.getDirectory()).toAbsolutePath();
             return Files.walk(root,1)
@@ -157,4 +211,122 @@ public class ModFileResourcePack extends ResourcePack
     <T extends ResourcePackInfo> T getPackInfo() {
         return (T)this.packInfo;
     }
+
+    /**
+     * Every file below the {@link ResourcePackType} directories of a mod jar, sorted by path within each namespace.
+     * Built by a single walk of the jar's file system the first time the pack is queried.
+     */
+    private static class ResourceIndex
+    {
+        private final Map<ResourcePackType, Map<String, NavigableSet<String>>> types = new EnumMap<>(ResourcePackType.class);
+        private final Set<String> files = new HashSet<>();
+
+        static ResourceIndex build(final ModFile modFile)
+        {
+            ResourceIndex ret = new ResourceIndex();
+            for (ResourcePackType type : ResourcePackType.values())
+            {
+                Path root = modFile.getLocator().findPath(modFile, type.getDirectory()).toAbsolutePath();
+                if (!Files.isDirectory(root))
+                    continue;
+                Map<String, NavigableSet<String>> namespaces = new HashMap<>();
+                try
+                {
+                    Files.walkFileTree(root, new SimpleFileVisitor<Path>()
+                    {
+                        @Override
+                        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
+                        {
+                            Path relative = root.relativize(dir.toAbsolutePath());
+                            if (relative.getNameCount() == 1 && !relative.toString().isEmpty())
+                                namespaces.computeIfAbsent(relative.toString().replaceAll("/$",""), k -> new TreeSet<>());
+                            return FileVisitResult.CONTINUE;
+                        }
+
+                        @Override
+                        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+                        {
+                            Path relative = root.relativize(file.toAbsolutePath());
+                            if (relative.getNameCount() < 2)
+                                return FileVisitResult.CONTINUE;
+                            String namespace = relative.getName(0).toString().replaceAll("/$","");
+                            String path = Joiner.on('/').join(relative.subpath(1, relative.getNameCount()));
+                            namespaces.computeIfAbsent(namespace, k -> new TreeSet<>()).add(path);
+                            ret.files.add(type.getDirectory() + "/" + namespace + "/" + path);
+                            return FileVisitResult.CONTINUE;
+                        }
+                    });
+                }
+                catch (IOException e)
+                {
+                    LOGGER.warn("Failed to index {} in mod file {}", type.getDirectory(), modFile.getFileName(), e);
+                    continue;
+                }
+                ret.types.put(type, namespaces);
+            }
+            return ret;
+        }
+
+        /**
+         * @return whether the resource exists, or null if the name is outside the indexed directories
+         */
+        @Nullable
+        Boolean contains(String name)
+        {
+            for (ResourcePackType type : this.types.keySet())
+            {
+                if (name.startsWith(type.getDirectory()) && name.length() > type.getDirectory().length() && name.charAt(type.getDirectory().length()) == '/')
+                    return this.files.contains(name);
+            }
+            return null;
+        }
+
+        @Nullable
+        Set<String> getNamespaces(ResourcePackType type)
+        {
+            Map<String, NavigableSet<String>> namespaces = this.types.get(type);
+            return namespaces == null ? null : new HashSet<>(namespaces.keySet());
+        }
+
+        Collection<ResourceLocation> getResources(ResourcePackType type, String namespace, String pathIn, int maxDepth, Predicate<String> filter)
+        {
+            Map<String, NavigableSet<String>> namespaces = this.types.get(type);
+            NavigableSet<String> paths = namespaces == null ? null : namespaces.get(namespace);
+            if (paths == null)
+                return Collections.emptyList();
+
+            String prefix = pathIn.endsWith("/") ? pathIn.substring(0, pathIn.length() - 1) : pathIn;
+            Collection<String> candidates;
+            if (prefix.isEmpty())
+                candidates = paths;
+            else
+            {
+                // Everything below the directory 'prefix/', plus a file named exactly 'prefix', matching Path.startsWith. '0' sorts right after '/'
+                candidates = new ArrayList<>(paths.subSet(prefix + '/', true, prefix + '0', false));
+                if (paths.contains(prefix))
+                    candidates.add(prefix);
+            }
+
+            List<ResourceLocation> ret = new ArrayList<>();
+            for (String path : candidates)
+            {
+                if (path.endsWith(".mcmeta") || depth(path) > maxDepth)
+                    continue;
+                if (filter.test(path.substring(path.lastIndexOf('/') + 1)))
+                    ret.add(new ResourceLocation(namespace, path));
+            }
+            return ret;
+        }
+
+        private static int depth(String path)
+        {
+            int depth = 1;
+            for (int i = 0; i < path.length(); i++)
+            {
+                if (path.charAt(i) == '/')
+                    depth++;
+            }
+            return depth;
+        }
+    }
 }
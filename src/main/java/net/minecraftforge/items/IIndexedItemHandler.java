@@ -0,0 +1,66 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2021.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.items;
+
+import net.minecraft.item.Item;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Optional extension for item handlers that keep track of which slots hold what, so helpers like
+ * {@link ItemHandlerHelper#insertItemStacked} and the hopper hooks don't have to scan every slot.
+ *
+ * Slot queries work like {@link java.util.BitSet#nextSetBit(int)} and reflect every change made through the handler.
+ * Stacks returned by {@link #getStackInSlot(int)} are still modified in place by vanilla containers, so implementations
+ * must also account for those, for example by checking every slot read since the last query again.
+ */
+public interface IIndexedItemHandler extends IItemHandler
+{
+    /**
+     * Whether the slot queries can currently be used. If false, callers must scan the handler as usual.
+     */
+    boolean isIndexed();
+
+    /**
+     * Incremented whenever the handler changes its own contents.
+     */
+    long getChangeCount();
+
+    /**
+     * @return The first slot at or after {@code from} that holds the item, or -1 if there is none.
+     */
+    int nextSlotWithItem(@Nonnull Item item, int from);
+
+    /**
+     * @return The first slot at or after {@code from} that is empty, or -1 if there is none.
+     */
+    int nextEmptySlot(int from);
+
+    /**
+     * @return The first slot at or after {@code from} that holds anything, or -1 if there is none.
+     */
+    int nextOccupiedSlot(int from);
+
+    /**
+     * @return The first slot at or after {@code from} that is empty or holds less than its
+     *         {@link #getSlotLimit(int) slot limit}, or -1 if there is none.
+     */
+    int nextSlotWithRoom(int from);
+}
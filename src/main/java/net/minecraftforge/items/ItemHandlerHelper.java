@@ -22,6 +22,7 @@ package net.minecraftforge.items;
 import net.minecraft.entity.item.ItemEntity;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.util.SoundEvents;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.SoundCategory;
 import net.minecraft.util.math.MathHelper;
@@ -30,6 +31,7 @@ import net.minecraftforge.items.wrapper.PlayerMainInvWrapper;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.function.Predicate;
 
 public class ItemHandlerHelper
 {
@@ -112,6 +114,23 @@ public class ItemHandlerHelper
         }
 
         int sizeInventory = inventory.getSlots();
+        IIndexedItemHandler indexed = getIndexed(inventory);
+
+        if (indexed != null)
+        {
+            // only visit slots that already hold the item, then empty slots
+            Item item = stack.getItem();
+            for (int i = indexed.nextSlotWithItem(item, 0); i >= 0 && i < sizeInventory && !stack.isEmpty(); i = indexed.nextSlotWithItem(item, i + 1))
+            {
+                if (canItemStacksStackRelaxed(inventory.getStackInSlot(i), stack))
+                    stack = inventory.insertItem(i, stack, simulate);
+            }
+            for (int i = indexed.nextEmptySlot(0); i >= 0 && i < sizeInventory && !stack.isEmpty(); i = indexed.nextEmptySlot(i + 1))
+            {
+                stack = inventory.insertItem(i, stack, simulate);
+            }
+            return stack;
+        }
 
         // go through the inventory and try to fill up already existing items
         for (int i = 0; i < sizeInventory; i++)
@@ -148,6 +167,54 @@ public class ItemHandlerHelper
         return stack;
     }
 
+    /**
+     * Moves up to {@code max} items accepted by the filter from one handler to another, filling up already present
+     * stacks in the destination first. Only occupied source slots are visited when the source is indexed.
+     *
+     * @return The number of items moved.
+     */
+    public static int transfer(IItemHandler source, IItemHandler destination, Predicate<ItemStack> filter, int max)
+    {
+        IIndexedItemHandler indexed = getIndexed(source);
+        int moved = 0;
+        int slot = indexed == null ? 0 : indexed.nextOccupiedSlot(0);
+        while (slot >= 0 && slot < source.getSlots() && moved < max)
+        {
+            ItemStack inSlot = source.getStackInSlot(slot);
+            if (!inSlot.isEmpty() && filter.test(inSlot))
+            {
+                ItemStack extracted = source.extractItem(slot, max - moved, true);
+                if (!extracted.isEmpty())
+                {
+                    int accepted = extracted.getCount() - insertItemStacked(destination, extracted, true).getCount();
+                    if (accepted > 0)
+                    {
+                        extracted = source.extractItem(slot, accepted, false);
+                        ItemStack remainder = insertItemStacked(destination, extracted, false);
+                        moved += extracted.getCount() - remainder.getCount();
+                        // the destination took less than it promised, put the rest back where it came from
+                        if (!remainder.isEmpty())
+                        {
+                            remainder = source.insertItem(slot, remainder, false);
+                            insertItemStacked(source, remainder, false);
+                        }
+                    }
+                }
+            }
+            slot = indexed == null ? slot + 1 : indexed.nextOccupiedSlot(slot + 1);
+        }
+        return moved;
+    }
+
+    /**
+     * @return The handler if it currently provides slot hints, otherwise null.
+     */
+    @Nullable
+    public static IIndexedItemHandler getIndexed(@Nullable IItemHandler handler)
+    {
+        return handler instanceof IIndexedItemHandler && ((IIndexedItemHandler)handler).isIndexed() ? (IIndexedItemHandler)handler : null;
+    }
+
     /** giveItemToPlayer without preferred slot */
     public static void giveItemToPlayer(PlayerEntity player, @Nonnull ItemStack stack) {
         giveItemToPlayer(player, stack, -1);
@@ -19,6 +19,7 @@
 
 package net.minecraftforge.items;
 
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.CompoundNBT;
 import net.minecraft.nbt.ListNBT;
@@ -27,10 +28,15 @@ import net.minecraftforge.common.util.Constants;
 import net.minecraftforge.common.util.INBTSerializable;
 
 import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
-public class ItemStackHandler implements IItemHandler, IItemHandlerModifiable, INBTSerializable<CompoundNBT>
+public class ItemStackHandler implements IItemHandler, IItemHandlerModifiable, IIndexedItemHandler, INBTSerializable<CompoundNBT>
 {
     protected NonNullList<ItemStack> stacks;
+    private long changeCount;
 
     public ItemStackHandler()
     {
@@ -39,9 +45,13 @@ public class ItemStackHandler implements IItemHandler, IItemHandlerModifiable, I
 
     public ItemStackHandler(int size)
     {
-        stacks = NonNullList.withSize(size, ItemStack.EMPTY);
+        stacks = new IndexedStackList(size);
     }
 
+    /**
+     * The list may be shared with its owner, who can change it behind our back, so handlers built this way are
+     * not indexed.
+     */
     public ItemStackHandler(NonNullList<ItemStack> stacks)
     {
         this.stacks = stacks;
@@ -49,7 +59,7 @@ public class ItemStackHandler implements IItemHandler, IItemHandlerModifiable, I
 
     public void setSize(int size)
     {
-        stacks = NonNullList.withSize(size, ItemStack.EMPTY);
+        stacks = new IndexedStackList(size);
     }
 
     @Override
@@ -112,6 +122,7 @@ public class ItemStackHandler implements IItemHandler, IItemHandlerModifiable, I
             else
             {
                 existing.grow(reachedLimit ? limit : stack.getCount());
+                this.stacks.set(slot, existing);
             }
             onContentsChanged(slot);
         }
@@ -177,6 +188,65 @@ public class ItemStackHandler implements IItemHandler, IItemHandlerModifiable, I
         return true;
     }
 
+    /**
+     * The index only sees stacks put into {@link #stacks}, so it is not used by subclasses which present their slots
+     * differently by overriding {@link #getSlots()}, {@link #getStackInSlot(int)} or {@link #extractItem(int, int, boolean)}.
+     * It also assumes {@link #getSlotLimit(int)} only changes when the slot's stack does, subclasses with limits that
+     * change on their own must override this to return false.
+     */
+    @Override
+    public boolean isIndexed()
+    {
+        return stacks instanceof IndexedStackList && ((IndexedStackList)stacks).getOwner() == this && !OVERRIDES_ACCESSORS.get(getClass());
+    }
+
+    @Override
+    public long getChangeCount()
+    {
+        return changeCount;
+    }
+
+    @Override
+    public int nextSlotWithItem(@Nonnull Item item, int from)
+    {
+        if (!isIndexed())
+            return from < stacks.size() ? Math.max(from, 0) : -1;
+        BitSet slots = refreshIndex().slotsByItem.get(item);
+        return slots == null ? -1 : slots.nextSetBit(Math.max(from, 0));
+    }
+
+    @Override
+    public int nextEmptySlot(int from)
+    {
+        if (!isIndexed())
+            return from < stacks.size() ? Math.max(from, 0) : -1;
+        return refreshIndex().emptySlots.nextSetBit(Math.max(from, 0));
+    }
+
+    @Override
+    public int nextOccupiedSlot(int from)
+    {
+        if (!isIndexed())
+            return from < stacks.size() ? Math.max(from, 0) : -1;
+        int slot = refreshIndex().emptySlots.nextClearBit(Math.max(from, 0));
+        return slot < stacks.size() ? slot : -1;
+    }
+
+    @Override
+    public int nextSlotWithRoom(int from)
+    {
+        if (!isIndexed())
+            return from < stacks.size() ? Math.max(from, 0) : -1;
+        return refreshIndex().roomSlots.nextSetBit(Math.max(from, 0));
+    }
+
+    private IndexedStackList refreshIndex()
+    {
+        IndexedStackList list = (IndexedStackList)stacks;
+        list.refresh();
+        return list;
+    }
+
     @Override
     public CompoundNBT serializeNBT()
     {
@@ -230,4 +300,119 @@ public class ItemStackHandler implements IItemHandler, IItemHandlerModifiable, I
     {
 
     }
+
+    private static final ClassValue<Boolean> OVERRIDES_ACCESSORS = new ClassValue<Boolean>()
+    {
+        @Override
+        protected Boolean computeValue(Class<?> type)
+        {
+            try
+            {
+                return type.getMethod("getSlots").getDeclaringClass() != ItemStackHandler.class ||
+                        type.getMethod("getStackInSlot", int.class).getDeclaringClass() != ItemStackHandler.class ||
+                        type.getMethod("extractItem", int.class, int.class, boolean.class).getDeclaringClass() != ItemStackHandler.class;
+            }
+            catch (NoSuchMethodException e)
+            {
+                return true;
+            }
+        }
+    };
+
+    /**
+     * Keeps the slot index up to date with every stack put into the list, whether through this handler or by
+     * subclasses writing to {@link #stacks} directly.
+     *
+     * Stacks handed out by {@link #get(int)} or put in by {@link #set(int, ItemStack)} may still be grown or shrunk in
+     * place, as containers do when moving items around, so those slots are checked again before the next query.
+     */
+    private class IndexedStackList extends NonNullList<ItemStack>
+    {
+        private final Item[] items;
+        private final int[] counts;
+        private final Map<Item, BitSet> slotsByItem = new IdentityHashMap<>();
+        private final BitSet emptySlots = new BitSet();
+        // Slots which are empty or hold less than their slot limit
+        private final BitSet roomSlots = new BitSet();
+        // Slots whose stack may have been modified in place since they were last indexed
+        private final BitSet exposed = new BitSet();
+
+        private IndexedStackList(int size)
+        {
+            super(Arrays.asList(filledWithEmpty(size)), ItemStack.EMPTY);
+            this.items = new Item[size];
+            this.counts = new int[size];
+            this.emptySlots.set(0, size);
+            this.roomSlots.set(0, size);
+            changeCount++;
+        }
+
+        private ItemStackHandler getOwner()
+        {
+            return ItemStackHandler.this;
+        }
+
+        @Override
+        @Nonnull
+        public ItemStack get(int index)
+        {
+            ItemStack ret = super.get(index);
+            exposed.set(index);
+            return ret;
+        }
+
+        @Override
+        @Nonnull
+        public ItemStack set(int index, @Nonnull ItemStack stack)
+        {
+            ItemStack ret = super.set(index, stack);
+            index(index, stack);
+            exposed.set(index);
+            changeCount++;
+            return ret;
+        }
+
+        private void refresh()
+        {
+            for (int index = exposed.nextSetBit(0); index >= 0; index = exposed.nextSetBit(index + 1))
+            {
+                ItemStack stack = super.get(index);
+                Item item = stack.isEmpty() ? null : stack.getItem();
+                if (items[index] != item || (item != null && counts[index] != stack.getCount()))
+                {
+                    index(index, stack);
+                    changeCount++;
+                }
+            }
+            exposed.clear();
+        }
+
+        private void index(int index, ItemStack stack)
+        {
+            Item old = items[index];
+            Item item = stack.isEmpty() ? null : stack.getItem();
+            if (old != item)
+            {
+                if (old == null)
+                    emptySlots.clear(index);
+                else
+                    slotsByItem.get(old).clear(index);
+
+                if (item == null)
+                    emptySlots.set(index);
+                else
+                    slotsByItem.computeIfAbsent(item, k -> new BitSet()).set(index);
+                items[index] = item;
+            }
+            counts[index] = item == null ? 0 : stack.getCount();
+            roomSlots.set(index, item == null || stack.getCount() < getSlotLimit(index));
+        }
+    }
+
+    private static ItemStack[] filledWithEmpty(int size)
+    {
+        ItemStack[] ret = new ItemStack[size];
+        Arrays.fill(ret, ItemStack.EMPTY);
+        return ret;
+    }
 }
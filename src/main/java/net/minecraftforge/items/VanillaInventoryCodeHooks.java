@@ -22,6 +22,7 @@ package net.minecraftforge.items;
 import net.minecraft.block.Block;
 import net.minecraft.block.DropperBlock;
 import net.minecraft.block.HopperBlock;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.tileentity.IHopper;
 import net.minecraft.tileentity.TileEntity;
@@ -52,8 +53,9 @@ public class VanillaInventoryCodeHooks
         return getItemHandler(dest, Direction.UP)
                 .map(itemHandlerResult -> {
                     IItemHandler handler = itemHandlerResult.getKey();
+                    IIndexedItemHandler indexed = ItemHandlerHelper.getIndexed(handler);
 
-                    for (int i = 0; i < handler.getSlots(); i++)
+                    for (int i = indexed == null ? 0 : indexed.nextOccupiedSlot(0); i >= 0 && i < handler.getSlots(); i = indexed == null ? i + 1 : indexed.nextOccupiedSlot(i + 1))
                     {
                         ItemStack extractItem = handler.extractItem(i, 1, true);
                         if (!extractItem.isEmpty())
@@ -154,6 +156,29 @@ public class VanillaInventoryCodeHooks
 
     private static ItemStack putStackInInventoryAllSlots(TileEntity source, Object destination, IItemHandler destInventory, ItemStack stack)
     {
+        IIndexedItemHandler indexed = ItemHandlerHelper.getIndexed(destInventory);
+        if (indexed != null)
+        {
+            // Only slots already holding the item or empty can take it, each visited once in slot order
+            Item item = stack.getItem();
+            int slots = destInventory.getSlots();
+            int withItem = indexed.nextSlotWithItem(item, 0);
+            int empty = indexed.nextEmptySlot(0);
+            int slot = -1;
+            while (!stack.isEmpty())
+            {
+                while (withItem >= 0 && withItem <= slot)
+                    withItem = indexed.nextSlotWithItem(item, slot + 1);
+                while (empty >= 0 && empty <= slot)
+                    empty = indexed.nextEmptySlot(slot + 1);
+                slot = withItem < 0 ? empty : empty < 0 ? withItem : Math.min(withItem, empty);
+                if (slot < 0 || slot >= slots)
+                    break;
+                stack = insertStack(source, destination, destInventory, stack, slot);
+            }
+            return stack;
+        }
+
         for (int slot = 0; slot < destInventory.getSlots() && !stack.isEmpty(); slot++)
         {
             stack = insertStack(source, destination, destInventory, stack, slot);
@@ -221,6 +246,13 @@ public class VanillaInventoryCodeHooks
 
     private static boolean isFull(IItemHandler itemHandler)
     {
+        IIndexedItemHandler indexed = ItemHandlerHelper.getIndexed(itemHandler);
+        if (indexed != null)
+        {
+            int slot = indexed.nextSlotWithRoom(0);
+            return slot < 0 || slot >= itemHandler.getSlots();
+        }
+
         for (int slot = 0; slot < itemHandler.getSlots(); slot++)
         {
             ItemStack stackInSlot = itemHandler.getStackInSlot(slot);
@@ -234,6 +266,13 @@ public class VanillaInventoryCodeHooks
 
     private static boolean isEmpty(IItemHandler itemHandler)
     {
+        IIndexedItemHandler indexed = ItemHandlerHelper.getIndexed(itemHandler);
+        if (indexed != null)
+        {
+            int slot = indexed.nextOccupiedSlot(0);
+            return slot < 0 || slot >= itemHandler.getSlots();
+        }
+
         for (int slot = 0; slot < itemHandler.getSlots(); slot++)
         {
             ItemStack stackInSlot = itemHandler.getStackInSlot(slot);
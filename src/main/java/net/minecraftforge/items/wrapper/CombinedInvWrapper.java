@@ -19,13 +19,16 @@
 
 package net.minecraftforge.items.wrapper;
 
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
+import net.minecraftforge.items.IIndexedItemHandler;
+import net.minecraftforge.items.IItemHandler;
 import net.minecraftforge.items.IItemHandlerModifiable;
 
 import javax.annotation.Nonnull;
 
 // combines multiple IItemHandlerModifiable into one interface
-public class CombinedInvWrapper implements IItemHandlerModifiable
+public class CombinedInvWrapper implements IItemHandlerModifiable, IIndexedItemHandler
 {
 
     protected final IItemHandlerModifiable[] itemHandler; // the handlers
@@ -141,4 +144,97 @@ public class CombinedInvWrapper implements IItemHandlerModifiable
         int localSlot = getSlotFromIndex(slot, index);
         return handler.isItemValid(localSlot, stack);
     }
+
+    // subclasses which change how slots are presented can't use the hints of the wrapped handlers
+    @Override
+    public boolean isIndexed()
+    {
+        if (OVERRIDES_ACCESSORS.get(getClass()))
+            return false;
+        for (IItemHandlerModifiable handler : itemHandler)
+            if (!(handler instanceof IIndexedItemHandler) || !((IIndexedItemHandler)handler).isIndexed())
+                return false;
+        return true;
+    }
+
+    @Override
+    public long getChangeCount()
+    {
+        long ret = 0;
+        for (IItemHandlerModifiable handler : itemHandler)
+            if (handler instanceof IIndexedItemHandler)
+                ret += ((IIndexedItemHandler)handler).getChangeCount();
+        return ret;
+    }
+
+    @Override
+    public int nextSlotWithItem(@Nonnull Item item, int from)
+    {
+        return nextSlot(from, (handler, slot) -> handler.nextSlotWithItem(item, slot));
+    }
+
+    @Override
+    public int nextEmptySlot(int from)
+    {
+        return nextSlot(from, IIndexedItemHandler::nextEmptySlot);
+    }
+
+    @Override
+    public int nextOccupiedSlot(int from)
+    {
+        return nextSlot(from, IIndexedItemHandler::nextOccupiedSlot);
+    }
+
+    @Override
+    public int nextSlotWithRoom(int from)
+    {
+        return nextSlot(from, IIndexedItemHandler::nextSlotWithRoom);
+    }
+
+    // asks each handler from the one holding the slot onwards, only within the slots it had when this wrapper was built
+    private int nextSlot(int from, SlotQuery query)
+    {
+        if (from < 0)
+            from = 0;
+        for (int index = getIndexForSlot(from); index >= 0 && index < itemHandler.length; index++)
+        {
+            IItemHandler handler = itemHandler[index];
+            int base = index == 0 ? 0 : baseIndex[index - 1];
+            int localFrom = Math.max(from - base, 0);
+            int local;
+            if (handler instanceof IIndexedItemHandler)
+                local = query.next((IIndexedItemHandler)handler, localFrom);
+            else
+                local = localFrom;
+
+            if (local >= 0 && base + local < baseIndex[index])
+                return base + local;
+            from = baseIndex[index];
+        }
+        return -1;
+    }
+
+    private static final ClassValue<Boolean> OVERRIDES_ACCESSORS = new ClassValue<Boolean>()
+    {
+        @Override
+        protected Boolean computeValue(Class<?> type)
+        {
+            try
+            {
+                return type.getMethod("getSlots").getDeclaringClass() != CombinedInvWrapper.class ||
+                        type.getMethod("getStackInSlot", int.class).getDeclaringClass() != CombinedInvWrapper.class ||
+                        type.getMethod("extractItem", int.class, int.class, boolean.class).getDeclaringClass() != CombinedInvWrapper.class;
+            }
+            catch (NoSuchMethodException e)
+            {
+                return true;
+            }
+        }
+    };
+
+    @FunctionalInterface
+    private interface SlotQuery
+    {
+        int next(IIndexedItemHandler handler, int from);
+    }
 }
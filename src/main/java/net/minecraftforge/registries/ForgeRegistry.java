@@ -19,6 +19,8 @@
 
 package net.minecraftforge.registries;
 
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Array;
 import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
@@ -27,6 +29,10 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -46,8 +52,11 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
+import io.netty.handler.codec.DecoderException;
 
 import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
 import net.minecraft.nbt.CompoundNBT;
 import net.minecraft.nbt.ListNBT;
 import net.minecraft.nbt.StringNBT;
@@ -98,6 +107,15 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
     private V defaultValue = null;
     boolean isFrozen = false;
 
+    // Dense id lookups built while the registry is locked, see bakeIds(). Null whenever the maps above may change.
+    @Nullable
+    private V[] bakedValues = null;
+    @Nullable
+    private Reference2IntOpenHashMap<V> bakedIds = null;
+    // Snapshot sent to every connecting client, see getSyncSnapshot(). Null whenever the registry may change.
+    @Nullable
+    private volatile Snapshot syncSnapshot = null;
+
     private final ResourceLocation name;
     private final RegistryKey<Registry<V>> key;
     private final RegistryBuilder<V> builder;
@@ -271,6 +289,13 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
 
     public int getID(V value)
     {
+        Reference2IntOpenHashMap<V> baked = this.bakedIds;
+        if (baked != null)
+        {
+            int id = baked.getInt(value);
+            if (id != -1)
+                return id;
+        }
         Integer ret = this.ids.inverse().get(value);
         if (ret == null && this.defaultValue != null)
             ret = this.ids.inverse().get(this.defaultValue);
@@ -293,6 +318,12 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
 
     public V getValue(int id)
     {
+        V[] baked = this.bakedValues;
+        if (baked != null)
+        {
+            V ret = id >= 0 && id < baked.length ? baked[id] : null;
+            return ret == null ? this.defaultValue : ret;
+        }
         V ret = this.ids.get(id);
         return ret == null ? this.defaultValue : ret;
     }
@@ -373,6 +404,7 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
             this.defaultValue = value;
         }
 
+        invalidateIds();
         this.names.put(key, value);
         this.keys.put(RegistryKey.create(this.key, key), value);
         this.ids.put(idToUse, value);
@@ -520,10 +552,43 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
 
     public void bake()
     {
+        if (isLocked())
+            bakeIds();
         if (this.bake != null)
             this.bake.onBake(this, this.stage);
     }
 
+    /**
+     * Builds the array and identity map used by {@link #getID(IForgeRegistryEntry)} and {@link #getValue(int)} so
+     * those avoid boxing and hashing through the {@link BiMap}. Only done while locked, anything that changes the id
+     * mapping calls {@link #invalidateIds()} first.
+     */
+    @SuppressWarnings("unchecked")
+    private void bakeIds()
+    {
+        int size = 0;
+        for (int id : this.ids.keySet())
+            size = Math.max(size, id + 1);
+
+        V[] values = (V[])Array.newInstance(this.superType, size);
+        Reference2IntOpenHashMap<V> lookup = new Reference2IntOpenHashMap<>(this.ids.size());
+        lookup.defaultReturnValue(-1);
+        this.ids.forEach((id, value) -> {
+            if (id >= 0)
+                values[id] = value;
+            lookup.put(value, id.intValue());
+        });
+        this.bakedValues = values;
+        this.bakedIds = lookup;
+    }
+
+    private void invalidateIds()
+    {
+        this.bakedValues = null;
+        this.bakedIds = null;
+        this.syncSnapshot = null;
+    }
+
     void sync(ResourceLocation name, ForgeRegistry<V> from)
     {
         LOGGER.debug(REGISTRIES,"Registry {} Sync: {} -> {}", this.superType.getSimpleName(), this.stage.getName(), from.stage.getName());
@@ -533,6 +598,7 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
             throw new IllegalArgumentException("Attempted to copy to incompatible registry: " + name + " " + from.superType + " -> " + this.superType);
 
         this.isFrozen = false;
+        invalidateIds();
 
         if (this.clear != null)
             this.clear.onClear(this, stage);
@@ -616,6 +682,7 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
         this.aliases.clear();
         this.dummies.clear();
 
+        invalidateIds();
         this.ids.clear();
         this.names.clear();
         this.keys.clear();
@@ -634,6 +701,7 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
         V value = this.names.remove(key);
         if (value != null)
         {
+            invalidateIds();
             RegistryKey<V> rkey = this.keys.inverse().remove(value);
             if (rkey == null)
                 throw new IllegalStateException("Removed a entry that did not have an associated RegistryKey: " + key + " " + value.toString() + " This should never happen unless hackery!");
@@ -652,6 +720,7 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
     {
         this.blocked.add(id);
         this.availabilityMap.set(id);
+        this.syncSnapshot = null;
     }
 
     @Override
@@ -667,11 +736,14 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
     public void freeze()
     {
         this.isFrozen = true;
+        this.syncSnapshot = null;
+        bakeIds();
     }
 
     public void unfreeze()
     {
         this.isFrozen = false;
+        invalidateIds();
     }
 
     RegistryEvent.Register<V> getRegisterEvent(ResourceLocation name)
@@ -783,6 +855,7 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
         LOGGER.debug(REGISTRIES,"Registry Dummy Add: {} {} -> {}", key, id, dummy);
 
         //It was blocked before so we need to unset the blocking map
+        invalidateIds();
         this.availabilityMap.clear(id);
         if (this.containsKey(key))
         {
@@ -825,6 +898,21 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
         return ret;
     }
 
+    /**
+     * Snapshot of the frozen registry shared by every login handshake, so its packet data, compact form and hash are
+     * only computed once per frozen state. While the registry can still change a fresh snapshot is returned instead.
+     * The returned snapshot must not be modified.
+     */
+    Snapshot getSyncSnapshot()
+    {
+        if (!isLocked())
+            return makeSnapshot();
+        Snapshot ret = this.syncSnapshot;
+        if (ret == null)
+            this.syncSnapshot = ret = makeSnapshot();
+        return ret;
+    }
+
     Map<ResourceLocation, String> getOverrideOwners()
     {
         Map<ResourceLocation, String> ret = Maps.newHashMap();
@@ -848,6 +936,10 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
         public final Set<ResourceLocation> dummied = Sets.newTreeSet(sorter);
         public final Map<ResourceLocation, String> overrides = Maps.newTreeMap(sorter);
         private PacketBuffer binary = null;
+        private static final int MAX_COMPACT_SIZE = 1 << 26;
+        private byte[] compact = null;
+        private byte[] compressed = null;
+        private String hash = null;
 
         public CompoundNBT write()
         {
@@ -998,6 +1090,266 @@ public class ForgeRegistry<V extends IForgeRegistryEntry<V>> implements IForgeRe
 
             return ret;
         }
+
+        /**
+         * Writes this snapshot in the compact handshake format: namespaces and override owners are interned into a
+         * string table, names are written in sorted order as a shared prefix length plus suffix of the previous name,
+         * blocked ids are delta coded, and the whole thing is deflated.
+         * The result is cached, so the snapshot must not be modified afterwards.
+         */
+        public synchronized void writeCompressed(PacketBuffer buff)
+        {
+            byte[] raw = getCompact();
+            if (compressed == null)
+            {
+                this.compressed = deflate(raw);
+                LOGGER.debug(REGISTRIES, "Compressed registry snapshot from {} to {} bytes", raw.length, compressed.length);
+            }
+            buff.writeVarInt(raw.length);
+            buff.writeByteArray(compressed);
+        }
+
+        /**
+         * Hash of the compact snapshot data, used by clients to tell the server which snapshots they already hold.
+         */
+        public synchronized String getHash()
+        {
+            if (hash == null)
+                this.hash = Hashing.sha256().hashBytes(getCompact()).toString();
+            return hash;
+        }
+
+        private byte[] getCompact()
+        {
+            if (compact == null)
+                this.compact = writeCompact();
+            return compact;
+        }
+
+        public static Snapshot readCompressed(PacketBuffer buff)
+        {
+            int rawLen = buff.readVarInt();
+            if (rawLen < 0 || rawLen > MAX_COMPACT_SIZE)
+                throw new DecoderException("Invalid registry snapshot size " + rawLen);
+            byte[] data = buff.readByteArray(MAX_COMPACT_SIZE);
+            byte[] raw = inflate(data, rawLen);
+
+            Snapshot ret = readCompact(new PacketBuffer(Unpooled.wrappedBuffer(raw)));
+            ret.compact = raw;
+            ret.compressed = data;
+            ret.hash = Hashing.sha256().hashBytes(raw).toString();
+            return ret;
+        }
+
+        private byte[] writeCompact()
+        {
+            Map<String, Integer> strings = Maps.newLinkedHashMap();
+            Consumer<ResourceLocation> intern = rl -> strings.computeIfAbsent(rl.getNamespace(), k -> strings.size());
+            this.ids.keySet().forEach(intern);
+            this.aliases.forEach((k, v) -> { intern.accept(k); intern.accept(v); });
+            this.overrides.forEach((k, v) -> { intern.accept(k); strings.computeIfAbsent(v, o -> strings.size()); });
+            this.dummied.forEach(intern);
+
+            PacketBuffer pkt = new PacketBuffer(Unpooled.buffer());
+            pkt.writeVarInt(strings.size());
+            strings.keySet().forEach(k -> pkt.writeUtf(k, 0x100));
+
+            NameWriter names = new NameWriter(pkt, strings);
+            pkt.writeVarInt(this.ids.size());
+            this.ids.forEach((k, v) -> {
+                names.write(k);
+                pkt.writeVarInt(v);
+            });
+
+            names.reset();
+            NameWriter targets = new NameWriter(pkt, strings);
+            pkt.writeVarInt(this.aliases.size());
+            this.aliases.forEach((k, v) -> {
+                names.write(k);
+                targets.write(v);
+            });
+
+            names.reset();
+            pkt.writeVarInt(this.overrides.size());
+            this.overrides.forEach((k, v) -> {
+                names.write(k);
+                pkt.writeVarInt(strings.get(v));
+            });
+
+            pkt.writeVarInt(this.blocked.size());
+            int last = 0;
+            for (int id : this.blocked)
+            {
+                pkt.writeVarInt(id - last);
+                last = id;
+            }
+
+            names.reset();
+            pkt.writeVarInt(this.dummied.size());
+            this.dummied.forEach(names::write);
+
+            byte[] raw = new byte[pkt.readableBytes()];
+            pkt.readBytes(raw);
+            return raw;
+        }
+
+        private static Snapshot readCompact(PacketBuffer buff)
+        {
+            Snapshot ret = new Snapshot();
+
+            String[] strings = new String[buff.readVarInt()];
+            for (int x = 0; x < strings.length; x++)
+                strings[x] = buff.readUtf(0x100);
+
+            NameReader names = new NameReader(buff, strings);
+            int len = buff.readVarInt();
+            for (int x = 0; x < len; x++)
+                ret.ids.put(names.read(), buff.readVarInt());
+
+            names.reset();
+            NameReader targets = new NameReader(buff, strings);
+            len = buff.readVarInt();
+            for (int x = 0; x < len; x++)
+                ret.aliases.put(names.read(), targets.read());
+
+            names.reset();
+            len = buff.readVarInt();
+            for (int x = 0; x < len; x++)
+                ret.overrides.put(names.read(), names.string(buff.readVarInt()));
+
+            len = buff.readVarInt();
+            int last = 0;
+            for (int x = 0; x < len; x++)
+            {
+                last += buff.readVarInt();
+                ret.blocked.add(last);
+            }
+
+            names.reset();
+            len = buff.readVarInt();
+            for (int x = 0; x < len; x++)
+                ret.dummied.add(names.read());
+
+            return ret;
+        }
+
+        private static byte[] deflate(byte[] raw)
+        {
+            Deflater deflater = new Deflater();
+            try
+            {
+                deflater.setInput(raw);
+                deflater.finish();
+                ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4 + 64);
+                byte[] chunk = new byte[8192];
+                while (!deflater.finished())
+                    out.write(chunk, 0, deflater.deflate(chunk));
+                return out.toByteArray();
+            }
+            finally
+            {
+                deflater.end();
+            }
+        }
+
+        private static byte[] inflate(byte[] data, int rawLen)
+        {
+            Inflater inflater = new Inflater();
+            try
+            {
+                inflater.setInput(data);
+                byte[] raw = new byte[rawLen];
+                int read = 0;
+                while (read < rawLen && !inflater.finished())
+                {
+                    int count = inflater.inflate(raw, read, rawLen - read);
+                    if (count == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                        break;
+                    read += count;
+                }
+                if (read != rawLen || !inflater.finished())
+                    throw new DecoderException("Registry snapshot data is truncated or larger than declared");
+                return raw;
+            }
+            catch (DataFormatException e)
+            {
+                throw new DecoderException("Invalid compressed registry snapshot", e);
+            }
+            finally
+            {
+                inflater.end();
+            }
+        }
+
+        /**
+         * Writes names sorted by {@link ResourceLocation#compareNamespaced}, as a namespace index, the length of the
+         * path prefix shared with the previous name, and the remaining suffix.
+         */
+        private static class NameWriter
+        {
+            private final PacketBuffer buff;
+            private final Map<String, Integer> strings;
+            private String last = "";
+
+            NameWriter(PacketBuffer buff, Map<String, Integer> strings)
+            {
+                this.buff = buff;
+                this.strings = strings;
+            }
+
+            void write(ResourceLocation name)
+            {
+                String path = name.getPath();
+                int max = Math.min(path.length(), last.length());
+                int shared = 0;
+                while (shared < max && path.charAt(shared) == last.charAt(shared))
+                    shared++;
+                buff.writeVarInt(strings.get(name.getNamespace()));
+                buff.writeVarInt(shared);
+                buff.writeUtf(path.substring(shared), 32767);
+                last = path;
+            }
+
+            void reset()
+            {
+                last = "";
+            }
+        }
+
+        private static class NameReader
+        {
+            private final PacketBuffer buff;
+            private final String[] strings;
+            private String last = "";
+
+            NameReader(PacketBuffer buff, String[] strings)
+            {
+                this.buff = buff;
+                this.strings = strings;
+            }
+
+            ResourceLocation read()
+            {
+                String namespace = string(buff.readVarInt());
+                int shared = buff.readVarInt();
+                if (shared > last.length())
+                    throw new DecoderException("Invalid shared prefix length " + shared + " for registry name after " + last);
+                last = last.substring(0, shared) + buff.readUtf(32767);
+                return new ResourceLocation(namespace, last);
+            }
+
+            String string(int index)
+            {
+                if (index < 0 || index >= strings.length)
+                    throw new DecoderException("Invalid string index " + index + " in registry snapshot");
+                return strings[index];
+            }
+
+            void reset()
+            {
+                last = "";
+            }
+        }
     }
 
     public MissingMappings<?> getMissingEvent(ResourceLocation name, Map<ResourceLocation, Integer> map)
@@ -26,6 +26,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
+
 import com.google.common.collect.BiMap;
 import com.google.common.collect.HashBiMap;
 import com.google.common.collect.Maps;
@@ -192,11 +194,22 @@ public class RegistryManager
 
     public static List<Pair<String, FMLHandshakeMessages.S2CRegistry>> generateRegistryPackets(boolean isLocal)
     {
-        return !isLocal ? ACTIVE.takeSnapshot(false).entrySet().stream().
-                map(e->Pair.of("Registry " + e.getKey(), new FMLHandshakeMessages.S2CRegistry(e.getKey(), e.getValue()))).
+        return !isLocal ? ACTIVE.synced.stream().
+                map(name->Pair.of("Registry " + name, new FMLHandshakeMessages.S2CRegistry(name, getSyncSnapshot(name)))).
                 collect(Collectors.toList()) : Collections.emptyList();
     }
 
+    /**
+     * @return the snapshot of an active registry sent to connecting clients, shared between connections while the
+     *         registry stays frozen. Must not be modified.
+     */
+    @Nullable
+    public static Snapshot getSyncSnapshot(ResourceLocation name)
+    {
+        ForgeRegistry<?> registry = ACTIVE.getRegistry(name);
+        return registry == null ? null : registry.getSyncSnapshot();
+    }
+
     public static List<ResourceLocation> getRegistryNamesForSyncToClient()
     {
         return ACTIVE.registries.keySet().stream().
@@ -0,0 +1,129 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2021.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.server.command;
+
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.world.server.ServerWorld;
+import net.minecraft.world.storage.WorldSavedData;
+
+/**
+ * Persists the progress of a {@link ChunkPregenWorker} in the world's data folder,
+ * so an interrupted pregeneration can be resumed when the server starts again.
+ */
+public class ChunkPregenData extends WorldSavedData
+{
+    public static final String ID = "forge_pregen";
+
+    private boolean active;
+    private int centerX;
+    private int centerZ;
+    private long total;
+    private long progress;
+    private int interval = -1;
+
+    public ChunkPregenData()
+    {
+        super(ID);
+    }
+
+    public static ChunkPregenData get(ServerWorld world)
+    {
+        return world.getDataStorage().computeIfAbsent(ChunkPregenData::new, ID);
+    }
+
+    @Override
+    public void load(CompoundNBT nbt)
+    {
+        this.active = nbt.getBoolean("Active");
+        this.centerX = nbt.getInt("CenterX");
+        this.centerZ = nbt.getInt("CenterZ");
+        this.total = nbt.getLong("Total");
+        this.progress = nbt.getLong("Progress");
+        this.interval = nbt.contains("Interval") ? nbt.getInt("Interval") : -1;
+    }
+
+    @Override
+    public CompoundNBT save(CompoundNBT nbt)
+    {
+        nbt.putBoolean("Active", this.active);
+        nbt.putInt("CenterX", this.centerX);
+        nbt.putInt("CenterZ", this.centerZ);
+        nbt.putLong("Total", this.total);
+        nbt.putLong("Progress", this.progress);
+        nbt.putInt("Interval", this.interval);
+        return nbt;
+    }
+
+    void start(int centerX, int centerZ, long total, int interval)
+    {
+        this.active = true;
+        this.centerX = centerX;
+        this.centerZ = centerZ;
+        this.total = total;
+        this.progress = 0;
+        this.interval = interval;
+        setDirty();
+    }
+
+    void setProgress(long progress)
+    {
+        if (this.progress != progress)
+        {
+            this.progress = progress;
+            setDirty();
+        }
+    }
+
+    void finish()
+    {
+        this.active = false;
+        setDirty();
+    }
+
+    public boolean isActive()
+    {
+        return active;
+    }
+
+    public int getCenterX()
+    {
+        return centerX;
+    }
+
+    public int getCenterZ()
+    {
+        return centerZ;
+    }
+
+    public long getTotal()
+    {
+        return total;
+    }
+
+    public long getProgress()
+    {
+        return progress;
+    }
+
+    public int getInterval()
+    {
+        return interval;
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2021.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.server.command;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.mojang.datafixers.util.Either;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.minecraft.command.CommandSource;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.RegistryKey;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.text.TextComponent;
+import net.minecraft.util.text.TranslationTextComponent;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.ChunkStatus;
+import net.minecraft.world.chunk.IChunk;
+import net.minecraft.world.server.ChunkHolder;
+import net.minecraft.world.server.ServerChunkProvider;
+import net.minecraft.world.server.ServerWorld;
+import net.minecraft.world.server.TicketType;
+import net.minecraftforge.common.ForgeConfig;
+import net.minecraftforge.common.WorldWorkerManager;
+import net.minecraftforge.common.WorldWorkerManager.IWorker;
+
+/**
+ * Pregenerates chunks in a spiral around a center chunk, keeping many chunks in flight at once.
+ *
+ * Instead of generating one chunk per call on the main thread, this adds a short lived ticket for
+ * up to {@link ForgeConfig.Server#pregenMaxInFlight} chunks and lets the chunk system generate them
+ * on its worker threads. New chunks are only requested while fewer than {@link ForgeConfig.Server#pregenMaxPendingChunks}
+ * chunks are queued in the chunk map waiting to be saved and unloaded, so generation can not outrun unloading.
+ *
+ * Progress is stored in {@link ChunkPregenData} and resumed when the server starts.
+ */
+public class ChunkPregenWorker implements IWorker
+{
+    private static final TicketType<ChunkPos> PREGEN = TicketType.create("forge:pregen", Comparator.comparingLong(ChunkPos::toLong));
+    private static final Map<RegistryKey<World>, ChunkPregenWorker> ACTIVE = new HashMap<>();
+
+    private final CommandSource listener;
+    private final ServerWorld dim;
+    private final ChunkPregenData data;
+    private final int centerX;
+    private final int centerZ;
+    private final long total;
+    private final int notificationFrequency;
+    // Chunk position -> every chunk we currently hold a ticket for
+    private final Long2ObjectMap<Pending> inFlight = new Long2ObjectOpenHashMap<>();
+    private final long startIndex;
+    private final long startTime;
+    private long nextIndex;
+    private long completed;
+    private long lastNotification;
+    private long lastNotificationTime;
+    private boolean stopped;
+
+    private ChunkPregenWorker(CommandSource listener, ServerWorld dim, ChunkPregenData data, int interval)
+    {
+        this.listener = listener;
+        this.dim = dim;
+        this.data = data;
+        this.centerX = data.getCenterX();
+        this.centerZ = data.getCenterZ();
+        this.total = data.getTotal();
+        this.nextIndex = this.startIndex = data.getProgress();
+        this.completed = this.startIndex;
+        this.notificationFrequency = interval != -1 ? interval : (int)Math.max(total / 20, 100); //Every 5% or every 100, whichever is more.
+        this.startTime = this.lastNotificationTime = System.currentTimeMillis(); //We also notify at least once every 60 seconds, to show we haven't froze.
+    }
+
+    /**
+     * Starts a new pregeneration task, replacing any task already running in the dimension
+     */
+    public static ChunkPregenWorker start(CommandSource listener, ServerWorld dim, int chunkX, int chunkZ, long total, int interval)
+    {
+        stop(dim);
+        ChunkPregenData data = ChunkPregenData.get(dim);
+        data.start(chunkX, chunkZ, total, interval);
+        return submit(new ChunkPregenWorker(listener, dim, data, interval));
+    }
+
+    /**
+     * Stops the pregeneration task running in the dimension, if any
+     *
+     * @return true if a task was stopped
+     */
+    public static boolean stop(ServerWorld dim)
+    {
+        ChunkPregenWorker worker = ACTIVE.remove(dim.dimension());
+        if (worker == null)
+            return false;
+        worker.stopped = true;
+        worker.releaseTickets();
+        worker.data.finish();
+        return true;
+    }
+
+    /**
+     * @return The task running in the dimension, or null
+     */
+    public static ChunkPregenWorker get(ServerWorld dim)
+    {
+        return ACTIVE.get(dim.dimension());
+    }
+
+    //Internal only, resumes every unfinished task when the server starts.
+    public static void resume(MinecraftServer server)
+    {
+        ACTIVE.clear();
+        for (ServerWorld dim : server.getAllLevels())
+        {
+            ChunkPregenData data = dim.getDataStorage().get(ChunkPregenData::new, ChunkPregenData.ID);
+            if (data != null && data.isActive() && data.getProgress() < data.getTotal())
+            {
+                CommandSource source = server.createCommandSourceStack();
+                submit(new ChunkPregenWorker(source, dim, data, data.getInterval()));
+                source.sendSuccess(new TranslationTextComponent("commands.forge.gen.resume", data.getProgress(), data.getTotal(), dim.dimension().location()), true);
+            }
+        }
+    }
+
+    //Internal only, used to forget about tasks when the server shuts down, their progress is already saved.
+    public static void clear()
+    {
+        ACTIVE.clear();
+    }
+
+    private static ChunkPregenWorker submit(ChunkPregenWorker worker)
+    {
+        ACTIVE.put(worker.dim.dimension(), worker);
+        WorldWorkerManager.addWorker(worker);
+        return worker;
+    }
+
+    public TextComponent getStartMessage()
+    {
+        return new TranslationTextComponent("commands.forge.gen.start", total, centerX, centerZ, dim.dimension().location());
+    }
+
+    public TextComponent getProgressMessage()
+    {
+        return new TranslationTextComponent("commands.forge.gen.progress.rate", completed, total, String.format("%.1f", getChunksPerSecond()));
+    }
+
+    /**
+     * @return The number of chunks completed per second since this worker started
+     */
+    public double getChunksPerSecond()
+    {
+        long elapsed = System.currentTimeMillis() - startTime;
+        return elapsed <= 0 ? 0 : (completed - startIndex) * 1000.0 / elapsed;
+    }
+
+    @Override
+    public String getName()
+    {
+        return "Chunk pregeneration in " + dim.dimension().location();
+    }
+
+    @Override
+    public boolean hasWork()
+    {
+        return !stopped && (nextIndex < total || !inFlight.isEmpty());
+    }
+
+    @Override
+    public boolean doWork()
+    {
+        ServerChunkProvider provider = dim.getChunkSource();
+
+        // Release every chunk that has finished generating, saving and unloading is left to the chunk system.
+        ObjectIterator<Long2ObjectMap.Entry<Pending>> itr = inFlight.long2ObjectEntrySet().iterator();
+        while (itr.hasNext())
+        {
+            Long2ObjectMap.Entry<Pending> entry = itr.next();
+            if (entry.getValue().future.isDone())
+            {
+                ChunkPos pos = new ChunkPos(entry.getLongKey());
+                provider.removeRegionTicket(PREGEN, pos, 0, pos);
+                itr.remove();
+                completed++;
+            }
+        }
+
+        int maxInFlight = ForgeConfig.SERVER.pregenMaxInFlight.get();
+        int maxPending = ForgeConfig.SERVER.pregenMaxPendingChunks.get();
+        while (nextIndex < total && inFlight.size() < maxInFlight && provider.chunkMap.pendingUnloads.size() < maxPending)
+        {
+            ChunkPos pos = getSpiralPos(nextIndex);
+            // The ticket keeps the chunk loaded until it is done, the future tells us when it reached full status.
+            provider.addRegionTicket(PREGEN, pos, 0, pos);
+            inFlight.put(pos.toLong(), new Pending(nextIndex, provider.getChunkFuture(pos.x, pos.z, ChunkStatus.FULL, true)));
+            nextIndex++;
+        }
+
+        long progress = nextIndex;
+        for (Pending pending : inFlight.values())
+            progress = Math.min(progress, pending.index);
+        data.setProgress(progress);
+
+        if (completed - lastNotification >= notificationFrequency || lastNotificationTime < System.currentTimeMillis() - 60*1000)
+        {
+            listener.sendSuccess(getProgressMessage(), true);
+            lastNotification = completed;
+            lastNotificationTime = System.currentTimeMillis();
+        }
+
+        if (!hasWork())
+        {
+            listener.sendSuccess(new TranslationTextComponent("commands.forge.gen.complete.rate", completed, dim.dimension().location(), String.format("%.1f", getChunksPerSecond())), true);
+            ACTIVE.remove(dim.dimension(), this);
+            data.finish();
+        }
+        // Chunks are generated off thread, nothing more to do until the chunk system has ticked again.
+        return false;
+    }
+
+    private void releaseTickets()
+    {
+        ServerChunkProvider provider = dim.getChunkSource();
+        for (long key : inFlight.keySet())
+        {
+            ChunkPos pos = new ChunkPos(key);
+            provider.removeRegionTicket(PREGEN, pos, 0, pos);
+        }
+        inFlight.clear();
+    }
+
+    private static class Pending
+    {
+        private final long index;
+        private final CompletableFuture<Either<IChunk, ChunkHolder.IChunkLoadingError>> future;
+
+        private Pending(long index, CompletableFuture<Either<IChunk, ChunkHolder.IChunkLoadingError>> future)
+        {
+            this.index = index;
+            this.future = future;
+        }
+    }
+
+    /**
+     * Returns the chunk at the given index of a square spiral around the center.
+     * The spiral starts at the center and then walks each ring on the right side, down, left, up, right.
+     */
+    private ChunkPos getSpiralPos(long index)
+    {
+        if (index == 0)
+            return new ChunkPos(centerX, centerZ);
+
+        // Ring r starts at index (2r - 1)^2 and holds 8r chunks
+        long radius = (long)((Math.sqrt(index) + 1) / 2);
+        while ((2 * radius + 1) * (2 * radius + 1) <= index)
+            radius++;
+        while ((2 * radius - 1) * (2 * radius - 1) > index)
+            radius--;
+
+        long offset = index - (2 * radius - 1) * (2 * radius - 1);
+        long q = offset % (2 * radius);
+        long x, z;
+        switch ((int)(offset / (2 * radius)))
+        {
+            case 0:  x = radius;          z = -radius + 1 + q; break;
+            case 1:  x = radius - 1 - q;  z = radius;          break;
+            case 2:  x = -radius;         z = radius - 1 - q;  break;
+            default: x = -radius + 1 + q; z = -radius;         break;
+        }
+        return new ChunkPos(centerX + (int)x, centerZ + (int)z);
+    }
+}
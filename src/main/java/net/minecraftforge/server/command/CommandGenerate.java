@@ -29,8 +29,8 @@ import net.minecraft.command.Commands;
 import net.minecraft.command.arguments.BlockPosArgument;
 import net.minecraft.command.arguments.DimensionArgument;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TranslationTextComponent;
 import net.minecraft.world.server.ServerWorld;
-import net.minecraftforge.common.WorldWorkerManager;
 
 class CommandGenerate
 {
@@ -48,6 +48,18 @@ class CommandGenerate
                     )
                     .executes(ctx -> execute(ctx.getSource(), BlockPosArgument.getOrLoadBlockPos(ctx, "pos"), getInt(ctx, "count"), ctx.getSource().getLevel(), -1))
                 )
+            )
+            .then(Commands.literal("stop")
+                .then(Commands.argument("dim", DimensionArgument.dimension())
+                    .executes(ctx -> stop(ctx.getSource(), DimensionArgument.getDimension(ctx, "dim")))
+                )
+                .executes(ctx -> stop(ctx.getSource(), ctx.getSource().getLevel()))
+            )
+            .then(Commands.literal("status")
+                .then(Commands.argument("dim", DimensionArgument.dimension())
+                    .executes(ctx -> status(ctx.getSource(), DimensionArgument.getDimension(ctx, "dim")))
+                )
+                .executes(ctx -> status(ctx.getSource(), ctx.getSource().getLevel()))
             );
     }
 
@@ -60,10 +72,28 @@ class CommandGenerate
     {
         BlockPos chunkpos = new BlockPos(pos.getX() >> 4, 0, pos.getZ() >> 4);
 
-        ChunkGenWorker worker = new ChunkGenWorker(source, chunkpos, count, dim, interval);
-        source.sendSuccess(worker.getStartMessage(source), true);
-        WorldWorkerManager.addWorker(worker);
+        ChunkPregenWorker worker = ChunkPregenWorker.start(source, dim, chunkpos.getX(), chunkpos.getZ(), count, interval);
+        source.sendSuccess(worker.getStartMessage(), true);
+
+        return 0;
+    }
+
+    private static int stop(CommandSource source, ServerWorld dim)
+    {
+        if (ChunkPregenWorker.stop(dim))
+            source.sendSuccess(new TranslationTextComponent("commands.forge.gen.stopped", dim.dimension().location()), true);
+        else
+            source.sendFailure(new TranslationTextComponent("commands.forge.gen.not_running", dim.dimension().location()));
+        return 0;
+    }
 
+    private static int status(CommandSource source, ServerWorld dim)
+    {
+        ChunkPregenWorker worker = ChunkPregenWorker.get(dim);
+        if (worker != null)
+            source.sendSuccess(worker.getProgressMessage(), false);
+        else
+            source.sendFailure(new TranslationTextComponent("commands.forge.gen.not_running", dim.dimension().location()));
         return 0;
     }
 }
@@ -21,6 +21,8 @@ package net.minecraftforge.server.command;
 
 import com.mojang.brigadier.arguments.IntegerArgumentType;
 import com.mojang.brigadier.builder.ArgumentBuilder;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -38,6 +40,7 @@ import net.minecraft.util.text.ITextComponent;
 import net.minecraft.util.text.TranslationTextComponent;
 import net.minecraftforge.server.timings.ForgeTimings;
 import net.minecraftforge.server.timings.TimeTracker;
+import net.minecraftforge.server.timings.TimingsExporter;
 
 class CommandTrack
 {
@@ -50,7 +53,7 @@ class CommandTrack
             .then(ResetTrackingCommand.register())
             .then(TrackResultsEntity.register())
             .then(TrackResultsTileEntity.register())
-            .then(StartTrackingCommand.register());
+            .then(ExportProfileCommand.register());
     }
 
     private static class StartTrackingCommand
@@ -80,8 +83,47 @@ class CommandTrack
                             return 0;
                         })
                     )
+                )
+                .then(Commands.literal("profile")
+                    .then(Commands.argument("duration", IntegerArgumentType.integer(1))
+                        .executes(ctx -> startProfiling(ctx.getSource(), IntegerArgumentType.getInteger(ctx, "duration"), 1))
+                        .then(Commands.argument("interval", IntegerArgumentType.integer(1))
+                            .executes(ctx -> startProfiling(ctx.getSource(), IntegerArgumentType.getInteger(ctx, "duration"), IntegerArgumentType.getInteger(ctx, "interval")))
+                        )
+                    )
                 );
         }
+
+        private static int startProfiling(CommandSource source, int duration, int interval)
+        {
+            TimeTracker.TILE_ENTITY_UPDATE.reset();
+            TimeTracker.TILE_ENTITY_UPDATE.enableProfiling(duration, interval);
+            TimeTracker.ENTITY_UPDATE.reset();
+            TimeTracker.ENTITY_UPDATE.enableProfiling(duration, interval);
+            source.sendSuccess(new TranslationTextComponent("commands.forge.tracking.profile.enabled", duration, interval), true);
+            return 0;
+        }
+    }
+
+    private static class ExportProfileCommand
+    {
+        static ArgumentBuilder<CommandSource, ?> register()
+        {
+            return Commands.literal("export")
+                .requires(cs->cs.hasPermission(2)) //permission
+                .executes(ctx -> {
+                    try
+                    {
+                        Path file = TimingsExporter.export();
+                        ctx.getSource().sendSuccess(new TranslationTextComponent("commands.forge.tracking.profile.exported", file.toString()), true);
+                    }
+                    catch (IOException e)
+                    {
+                        ctx.getSource().sendFailure(new TranslationTextComponent("commands.forge.tracking.profile.export_failed", e.getMessage()));
+                    }
+                    return 0;
+                });
+        }
     }
 
     private static class ResetTrackingCommand
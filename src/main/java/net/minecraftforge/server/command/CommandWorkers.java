@@ -0,0 +1,50 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2021.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.server.command;
+
+import java.text.DecimalFormat;
+import java.util.List;
+
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import net.minecraft.command.CommandSource;
+import net.minecraft.command.Commands;
+import net.minecraft.util.text.TranslationTextComponent;
+import net.minecraftforge.common.WorldWorkerManager;
+
+class CommandWorkers
+{
+    private static final DecimalFormat TIME_FORMATTER = new DecimalFormat("########0.000");
+
+    static ArgumentBuilder<CommandSource, ?> register()
+    {
+        return Commands.literal("workers")
+            .requires(cs->cs.hasPermission(2)) //permission
+            .executes(ctx -> {
+                List<WorldWorkerManager.WorkerStats> stats = WorldWorkerManager.getStats();
+                ctx.getSource().sendSuccess(new TranslationTextComponent("commands.forge.workers.summary", stats.size(), TIME_FORMATTER.format(WorldWorkerManager.getAverageTickTime())), false);
+                for (WorldWorkerManager.WorkerStats stat : stats)
+                {
+                    ctx.getSource().sendSuccess(new TranslationTextComponent("commands.forge.workers.entry", stat.getWorker().getName(), stat.getWorker().getWeight(),
+                        TIME_FORMATTER.format(stat.getTimeUsed() * 1.0E-6D), TIME_FORMATTER.format(stat.getLastTimeUsed() * 1.0E-6D), stat.getWorkDone()), false);
+                }
+                return 0;
+            });
+    }
+}
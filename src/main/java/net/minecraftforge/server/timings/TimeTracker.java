@@ -21,38 +21,72 @@ package net.minecraftforge.server.timings;
 
 import java.lang.ref.WeakReference;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.MapMaker;
 
 import net.minecraft.entity.Entity;
 import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.ResourceLocation;
 
 /**
  * A class to assist in the collection of data to measure the update times of ticking objects {currently Tile Entities and Entities}
  *
+ * The tracker runs in one of two modes. Tracking records the last 100 update times of every
+ * individual object, while profiling samples updates into a {@link TimingHistogram} per
+ * object type, which can be aggregated per mod and exported with {@link TimingsExporter}.
+ * Neither mode costs more than a field check when the tracker is disabled.
+ *
  * @param <T>
  */
 public class TimeTracker<T>
 {
+    private static final ResourceLocation UNKNOWN_TYPE = new ResourceLocation("forge", "unknown");
 
     /**
      * A tracker for timing tile entity update
      */
-    public static final TimeTracker<TileEntity> TILE_ENTITY_UPDATE = new TimeTracker<>();
+    public static final TimeTracker<TileEntity> TILE_ENTITY_UPDATE = new TimeTracker<>(te -> te.getType().getRegistryName());
     /**
      * A tracker for timing entity updates
      */
-    public static final TimeTracker<Entity> ENTITY_UPDATE = new TimeTracker<>();
+    public static final TimeTracker<Entity> ENTITY_UPDATE = new TimeTracker<>(entity -> entity.getType().getRegistryName());
 
+    private final Function<T, ResourceLocation> typeKey;
     private boolean enabled;
+    private boolean profiling;
     private int trackingDuration;
+    private int sampleInterval = 1;
+    private int sampleCounter;
     private Map<T, int[]> timings = new MapMaker().weakKeys().makeMap();
+    private Map<ResourceLocation, TimingHistogram> typeTimings = new ConcurrentHashMap<>();
     private WeakReference<T> currentlyTracking;
+    private @Nullable T currentlyProfiling;
     private long trackTime;
     private long timing;
+    private long profileStart;
+    private long profileEnd;
+
+    public TimeTracker()
+    {
+        this(t -> UNKNOWN_TYPE);
+    }
+
+    /**
+     * @param typeKey Maps a tracked object to its type, used to aggregate profiling data
+     */
+    public TimeTracker(Function<T, ResourceLocation> typeKey)
+    {
+        this.typeKey = typeKey;
+    }
 
     /**
      * Returns the timings data recorded by the tracker
@@ -70,14 +104,67 @@ public class TimeTracker<T>
         return builder.build();
     }
 
+    /**
+     * Returns the profiling data recorded by the tracker, aggregated by object type
+     *
+     * @return An immutable copy of the histograms collected per type
+     */
+    public ImmutableMap<ResourceLocation, TimingHistogram> getTypeTimings()
+    {
+        ImmutableMap.Builder<ResourceLocation, TimingHistogram> builder = ImmutableMap.builder();
+        for (Map.Entry<ResourceLocation, TimingHistogram> entry : typeTimings.entrySet())
+        {
+            TimingHistogram copy = new TimingHistogram();
+            copy.add(entry.getValue());
+            builder.put(entry.getKey(), copy);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the profiling data recorded by the tracker, aggregated by the namespace of the object type
+     *
+     * @return An immutable map of mod id to the combined histogram of all its types
+     */
+    public ImmutableMap<String, TimingHistogram> getModTimings()
+    {
+        Map<String, TimingHistogram> mods = new HashMap<>();
+        for (Map.Entry<ResourceLocation, TimingHistogram> entry : typeTimings.entrySet())
+        {
+            mods.computeIfAbsent(entry.getKey().getNamespace(), k -> new TimingHistogram()).add(entry.getValue());
+        }
+        return ImmutableMap.copyOf(mods);
+    }
+
+    /**
+     * @return The wall clock duration of the current or last profiling session in nanoseconds
+     */
+    public long getProfilingTime()
+    {
+        if (profileStart == 0)
+            return 0;
+        return (profileEnd == 0 ? System.nanoTime() : profileEnd) - profileStart;
+    }
+
+    public boolean isProfiling()
+    {
+        return enabled && profiling;
+    }
+
     /**
      * Resets the tracker (clears timings and stops any in-progress timings)
      */
     public void reset()
     {
         enabled = false;
+        profiling = false;
         trackTime = 0;
+        profileStart = 0;
+        profileEnd = 0;
+        currentlyTracking = null;
+        currentlyProfiling = null;
         timings.clear();
+        typeTimings.clear();
     }
 
     /**
@@ -100,6 +187,24 @@ public class TimeTracker<T>
     public void enable(int duration)
     {
         this.trackingDuration = duration;
+        this.profiling = false;
+        this.enabled = true;
+    }
+
+    /**
+     * Starts recording profiling data, aggregated by object type, for the given duration in seconds
+     *
+     * @param duration The duration for the time to profile
+     * @param sampleInterval Only one in every sampleInterval updates is timed, 1 times every update
+     */
+    public void enableProfiling(int duration, int sampleInterval)
+    {
+        this.trackingDuration = duration;
+        this.sampleInterval = Math.max(1, sampleInterval);
+        this.sampleCounter = 0;
+        this.profileStart = System.nanoTime();
+        this.profileEnd = 0;
+        this.profiling = true;
         this.enabled = true;
     }
 
@@ -117,6 +222,16 @@ public class TimeTracker<T>
 
     private void trackEnd(T object, long nanoTime)
     {
+        if (profiling)
+        {
+            if (currentlyProfiling == object)
+            {
+                ResourceLocation type = typeKey.apply(object);
+                typeTimings.computeIfAbsent(type == null ? UNKNOWN_TYPE : type, k -> new TimingHistogram()).record(nanoTime - timing);
+            }
+            currentlyProfiling = null;
+            return;
+        }
         if (currentlyTracking == null || currentlyTracking.get() != object)
         {
             currentlyTracking = null;
@@ -137,6 +252,20 @@ public class TimeTracker<T>
         {
             enabled = false;
             trackTime = 0;
+            if (profiling)
+            {
+                profileEnd = nanoTime;
+                currentlyProfiling = null;
+                return;
+            }
+        }
+
+        if (profiling)
+        {
+            // Strong reference is fine here, it is always cleared by the matching trackEnd
+            currentlyProfiling = ++sampleCounter % sampleInterval == 0 ? toTrack : null;
+            timing = nanoTime;
+            return;
         }
 
         currentlyTracking = new WeakReference<>(toTrack);
@@ -0,0 +1,149 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2021.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.server.timings;
+
+import java.util.Arrays;
+
+/**
+ * A fixed size, log-linear histogram of nanosecond timings.
+ *
+ * Values are bucketed by their highest set bit, with each power of two split into
+ * {@value #SUB_BUCKETS} linear sub buckets, giving roughly 6% precision over the
+ * entire range of a long without allocating while recording.
+ *
+ * All methods are synchronized, as world threads of both sides may record into the same histogram.
+ */
+public class TimingHistogram
+{
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    private final long[] counts = new long[(64 - SUB_BITS + 1) * SUB_BUCKETS];
+    private long count;
+    private long total;
+    private long max;
+
+    /**
+     * Records a single timing
+     *
+     * @param nanos The time taken in nanoseconds, negative values are treated as zero
+     */
+    public synchronized void record(long nanos)
+    {
+        if (nanos < 0)
+            nanos = 0;
+        counts[indexOf(nanos)]++;
+        count++;
+        total += nanos;
+        if (nanos > max)
+            max = nanos;
+    }
+
+    /**
+     * Adds all timings recorded by another histogram to this one
+     */
+    public void add(TimingHistogram other)
+    {
+        long[] otherCounts;
+        long otherCount, otherTotal, otherMax;
+        synchronized (other)
+        {
+            otherCounts = other.counts.clone();
+            otherCount = other.count;
+            otherTotal = other.total;
+            otherMax = other.max;
+        }
+        synchronized (this)
+        {
+            for (int x = 0; x < counts.length; x++)
+                counts[x] += otherCounts[x];
+            count += otherCount;
+            total += otherTotal;
+            max = Math.max(max, otherMax);
+        }
+    }
+
+    public synchronized void reset()
+    {
+        Arrays.fill(counts, 0);
+        count = 0;
+        total = 0;
+        max = 0;
+    }
+
+    public synchronized long getCount()
+    {
+        return count;
+    }
+
+    public synchronized long getTotal()
+    {
+        return total;
+    }
+
+    public synchronized long getMax()
+    {
+        return max;
+    }
+
+    public synchronized double getMean()
+    {
+        return count == 0 ? 0 : (double)total / count;
+    }
+
+    /**
+     * Estimates the value at the given percentile
+     *
+     * @param percentile The percentile, between 0 and 100
+     * @return The highest value that falls in the same bucket as the requested percentile, capped at the recorded maximum
+     */
+    public synchronized long getPercentile(double percentile)
+    {
+        if (count == 0)
+            return 0;
+        long rank = Math.max(1, (long)Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100));
+        long seen = 0;
+        for (int x = 0; x < counts.length; x++)
+        {
+            seen += counts[x];
+            if (seen >= rank)
+                return Math.min(max, highestValueOf(x));
+        }
+        return max;
+    }
+
+    private static int indexOf(long value)
+    {
+        if (value < SUB_BUCKETS)
+            return (int)value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int)(value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long highestValueOf(int index)
+    {
+        if (index < SUB_BUCKETS)
+            return index;
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long)(SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
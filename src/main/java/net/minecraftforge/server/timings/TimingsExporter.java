@@ -0,0 +1,100 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2021.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.server.timings;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import net.minecraftforge.fml.loading.FMLPaths;
+
+/**
+ * Writes the profiling data of {@link TimeTracker}s to a JSON file in the {@code timings} folder
+ * of the game directory, so it can be analysed without attaching an external profiler.
+ *
+ * All times in the output are in microseconds.
+ */
+public class TimingsExporter
+{
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    /**
+     * Exports the profiling data of the tile entity and entity trackers
+     *
+     * @return The path of the written file
+     */
+    public static Path export() throws IOException
+    {
+        JsonObject root = new JsonObject();
+        root.addProperty("generated", System.currentTimeMillis());
+        root.add("tileEntities", toJson(TimeTracker.TILE_ENTITY_UPDATE));
+        root.add("entities", toJson(TimeTracker.ENTITY_UPDATE));
+
+        Path dir = FMLPaths.GAMEDIR.get().resolve("timings");
+        Files.createDirectories(dir);
+        Path file = dir.resolve("timings-" + new SimpleDateFormat("yyyy-MM-dd_HH.mm.ss").format(new Date()) + ".json");
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8))
+        {
+            GSON.toJson(root, writer);
+        }
+        return file;
+    }
+
+    private static JsonObject toJson(TimeTracker<?> tracker)
+    {
+        JsonObject ret = new JsonObject();
+        ret.addProperty("duration", tracker.getProfilingTime() / 1000);
+        ret.add("types", toJson(tracker.getTypeTimings()));
+        ret.add("mods", toJson(tracker.getModTimings()));
+        return ret;
+    }
+
+    private static JsonArray toJson(Map<?, TimingHistogram> timings)
+    {
+        JsonArray ret = new JsonArray();
+        timings.entrySet().stream()
+            .sorted(Comparator.comparingLong((Map.Entry<?, TimingHistogram> e) -> e.getValue().getTotal()).reversed())
+            .forEach(e -> {
+                TimingHistogram histogram = e.getValue();
+                JsonObject entry = new JsonObject();
+                entry.addProperty("name", e.getKey().toString());
+                entry.addProperty("samples", histogram.getCount());
+                entry.addProperty("total", histogram.getTotal() / 1000);
+                entry.addProperty("mean", histogram.getMean() / 1000);
+                entry.addProperty("p50", histogram.getPercentile(50) / 1000.0);
+                entry.addProperty("p95", histogram.getPercentile(95) / 1000.0);
+                entry.addProperty("p99", histogram.getPercentile(99) / 1000.0);
+                entry.addProperty("max", histogram.getMax() / 1000.0);
+                ret.add(entry);
+            });
+        return ret;
+    }
+}
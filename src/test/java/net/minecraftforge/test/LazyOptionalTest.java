@@ -29,6 +29,9 @@ import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class LazyOptionalTest
 {
@@ -78,4 +81,24 @@ public class LazyOptionalTest
         badLazy.ifPresent(u -> {});
         assertEquals(1, supplierCalls.intValue());
     }
+
+    @Test
+    public void testResolvedValue() {
+        LazyOptional<Unit> resolvedLazy = LazyOptional.ofResolved(Unit.INSTANCE);
+        assertTrue(resolvedLazy.isPresent());
+        assertSame(Unit.INSTANCE, resolvedLazy.orElse(null));
+        assertSame(LazyOptional.empty(), LazyOptional.ofResolved(null));
+    }
+
+    @Test
+    public void testResolvedInvalidate() {
+        MutableInt listenerCalls = new MutableInt();
+        LazyOptional<Unit> resolvedLazy = LazyOptional.ofResolved(Unit.INSTANCE);
+        resolvedLazy.addListener(l -> listenerCalls.increment());
+        resolvedLazy.invalidate();
+        resolvedLazy.invalidate();
+        assertEquals(1, listenerCalls.intValue());
+        assertFalse(resolvedLazy.isPresent());
+        assertFalse(resolvedLazy.resolve().isPresent());
+    }
 }
@@ -0,0 +1,244 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2021.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.test;
+
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.inventory.CraftingInventory;
+import net.minecraft.inventory.container.Container;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.item.crafting.ICraftingRecipe;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.item.crafting.IRecipeType;
+import net.minecraft.item.crafting.Ingredient;
+import net.minecraft.item.crafting.ShapedRecipe;
+import net.minecraft.item.crafting.ShapelessRecipe;
+import net.minecraft.util.NonNullList;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.registry.Bootstrap;
+import net.minecraft.world.World;
+import net.minecraftforge.common.crafting.RecipeIndex;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class RecipeIndexTest
+{
+    private static final Item[] POOL = { Items.STICK, Items.OAK_PLANKS, Items.COBBLESTONE, Items.DIAMOND };
+
+    @BeforeAll
+    public static void setup()
+    {
+        Bootstrap.bootStrap();
+    }
+
+    // Only matches while enabled, standing in for special recipes whose result depends on more than the grid's items
+    private static class ToggledRecipe extends ShapelessRecipe
+    {
+        private boolean enabled;
+
+        ToggledRecipe(ResourceLocation id, ItemStack result, Ingredient... ingredients)
+        {
+            super(id, "", result, NonNullList.of(Ingredient.EMPTY, ingredients));
+        }
+
+        @Override
+        public boolean matches(CraftingInventory inv, World world)
+        {
+            return enabled && super.matches(inv, world);
+        }
+    }
+
+    private final Map<ResourceLocation, IRecipe<CraftingInventory>> recipes = new LinkedHashMap<>();
+    private final RecipeIndex index = new RecipeIndex();
+    private final ToggledRecipe special;
+
+    public RecipeIndexTest()
+    {
+        shapeless("two_sticks", Ingredient.of(Items.STICK), Ingredient.of(Items.STICK));
+        special = new ToggledRecipe(new ResourceLocation("test", "special"), new ItemStack(Items.DIAMOND), Ingredient.of(Items.OAK_PLANKS));
+        recipes.put(special.getId(), special);
+        shapeless("stick_planks", Ingredient.of(Items.STICK), Ingredient.of(Items.OAK_PLANKS));
+        shaped("ladder", 1, 2, Ingredient.of(Items.STICK), Ingredient.of(Items.STICK));
+        shapeless("planks", Ingredient.of(Items.OAK_PLANKS));
+        shapeless("stick_or_cobble", Ingredient.of(Items.STICK, Items.COBBLESTONE));
+        shaped("cobble_pair", 2, 1, Ingredient.of(Items.COBBLESTONE), Ingredient.of(Items.COBBLESTONE));
+        shapeless("mixed", Ingredient.of(Items.COBBLESTONE), Ingredient.of(Items.DIAMOND), Ingredient.of(Items.STICK, Items.OAK_PLANKS));
+    }
+
+    private void shapeless(String name, Ingredient... ingredients)
+    {
+        ResourceLocation id = new ResourceLocation("test", name);
+        recipes.put(id, new ShapelessRecipe(id, "", new ItemStack(Items.DIAMOND), NonNullList.of(Ingredient.EMPTY, ingredients)));
+    }
+
+    private void shaped(String name, int width, int height, Ingredient... ingredients)
+    {
+        ResourceLocation id = new ResourceLocation("test", name);
+        recipes.put(id, new ShapedRecipe(id, "", width, height, NonNullList.of(Ingredient.EMPTY, ingredients), new ItemStack(Items.DIAMOND)));
+    }
+
+    private static CraftingInventory grid()
+    {
+        Container menu = new Container(null, 0)
+        {
+            @Override
+            public boolean stillValid(PlayerEntity player)
+            {
+                return true;
+            }
+        };
+        return new CraftingInventory(menu, 3, 3);
+    }
+
+    private static void fill(CraftingInventory inv, Item... items)
+    {
+        inv.clearContent();
+        for (int slot = 0; slot < items.length; slot++)
+            if (items[slot] != null)
+                inv.setItem(slot, new ItemStack(items[slot]));
+    }
+
+    private Optional<ICraftingRecipe> linear(CraftingInventory inv)
+    {
+        for (IRecipe<CraftingInventory> recipe : recipes.values())
+        {
+            Optional<ICraftingRecipe> match = IRecipeType.CRAFTING.tryMatch(recipe, null, inv);
+            if (match.isPresent())
+                return match;
+        }
+        return Optional.empty();
+    }
+
+    private Optional<ICraftingRecipe> indexed(CraftingInventory inv)
+    {
+        Optional<ICraftingRecipe> ret = index.getRecipeFor(recipes, IRecipeType.CRAFTING, inv, null);
+        assertEquals(linear(inv), ret, () -> "Index disagrees with the linear scan for " + describe(inv));
+        return ret;
+    }
+
+    private static String describe(CraftingInventory inv)
+    {
+        StringBuilder ret = new StringBuilder();
+        for (int slot = 0; slot < inv.getContainerSize(); slot++)
+            ret.append(slot == 0 ? "" : ", ").append(inv.getItem(slot));
+        return ret.toString();
+    }
+
+    private IRecipe<CraftingInventory> recipe(String name)
+    {
+        return recipes.get(new ResourceLocation("test", name));
+    }
+
+    @Test
+    public void testCandidateOrder()
+    {
+        CraftingInventory inv = grid();
+        // Several recipes accept each of these, the first one in map order has to win
+        fill(inv, Items.STICK, Items.STICK);
+        assertSame(recipe("two_sticks"), indexed(inv).get());
+        fill(inv, Items.STICK, null, null, Items.STICK);
+        assertSame(recipe("two_sticks"), indexed(inv).get());
+        fill(inv, Items.OAK_PLANKS, Items.STICK);
+        assertSame(recipe("stick_planks"), indexed(inv).get());
+        fill(inv, Items.STICK);
+        assertSame(recipe("stick_or_cobble"), indexed(inv).get());
+        fill(inv, Items.COBBLESTONE, Items.COBBLESTONE);
+        assertSame(recipe("cobble_pair"), indexed(inv).get());
+        fill(inv, Items.COBBLESTONE, null, null, Items.COBBLESTONE);
+        assertFalse(indexed(inv).isPresent());
+        fill(inv, Items.DIAMOND, Items.OAK_PLANKS, Items.COBBLESTONE);
+        assertSame(recipe("mixed"), indexed(inv).get());
+        fill(inv);
+        assertFalse(indexed(inv).isPresent());
+    }
+
+    @Test
+    public void testRandomAgainstLinearScan()
+    {
+        Random rand = new Random(1);
+        CraftingInventory shared = grid();
+        for (int i = 0; i < 20000; i++)
+        {
+            Item[] items = new Item[9];
+            int filled = 1 + rand.nextInt(4);
+            for (int x = 0; x < filled; x++)
+                items[rand.nextInt(9)] = POOL[rand.nextInt(POOL.length)];
+            special.enabled = rand.nextInt(8) == 0;
+
+            // A fresh grid never hits the last match, the shared one does whenever the layout repeats
+            CraftingInventory inv = grid();
+            fill(inv, items);
+            indexed(inv);
+            fill(shared, items);
+            indexed(shared);
+        }
+    }
+
+    @Test
+    public void testUnindexedRecipes()
+    {
+        CraftingInventory inv = grid();
+        fill(inv, Items.OAK_PLANKS);
+        special.enabled = false;
+        assertSame(recipe("planks"), indexed(inv).get());
+
+        // Same layout, so the last match is reused, but the special recipe before it must still be tested
+        special.enabled = true;
+        assertSame(special, indexed(inv).get());
+        special.enabled = false;
+        assertSame(recipe("planks"), indexed(inv).get());
+    }
+
+    @Test
+    public void testLastMatch()
+    {
+        CraftingInventory inv = grid();
+        fill(inv, Items.STICK, Items.STICK);
+        assertSame(recipe("two_sticks"), indexed(inv).get());
+        assertSame(recipe("two_sticks"), indexed(inv).get());
+
+        // Counts are not part of the layout, the remembered match still applies
+        inv.getItem(0).setCount(5);
+        assertSame(recipe("two_sticks"), indexed(inv).get());
+
+        fill(inv, Items.STICK, Items.STICK, Items.DIAMOND);
+        assertFalse(indexed(inv).isPresent());
+        assertFalse(indexed(inv).isPresent());
+
+        fill(inv, Items.STICK);
+        assertSame(recipe("stick_or_cobble"), indexed(inv).get());
+        fill(inv, null, null, null, null, Items.COBBLESTONE);
+        assertSame(recipe("stick_or_cobble"), indexed(inv).get());
+        fill(inv, Items.COBBLESTONE, Items.COBBLESTONE);
+        assertSame(recipe("cobble_pair"), indexed(inv).get());
+        fill(inv, Items.STICK, Items.STICK);
+        assertSame(recipe("two_sticks"), indexed(inv).get());
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * Minecraft Forge
+ * Copyright (c) 2016-2021.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation version 2.1
+ * of the License.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.minecraftforge.test;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.item.crafting.Ingredient;
+import net.minecraft.util.registry.Bootstrap;
+import net.minecraftforge.common.crafting.NBTIngredient;
+import net.minecraftforge.common.util.RecipeMatcher;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RecipeMatcherTest
+{
+    private static final Predicate<Integer> ANY = v -> true;
+
+    private static Predicate<Integer> is(int value)
+    {
+        return v -> v == value;
+    }
+
+    @BeforeAll
+    public static void setup()
+    {
+        Bootstrap.bootStrap();
+    }
+
+    private static ItemStack stack(Item item, int count)
+    {
+        return new ItemStack(item, count);
+    }
+
+    private static ItemStack named(Item item, String name)
+    {
+        ItemStack ret = new ItemStack(item);
+        ret.getOrCreateTag().putString("name", name);
+        return ret;
+    }
+
+    private static Ingredient nbt(ItemStack stack)
+    {
+        return new NBTIngredient(stack) {};
+    }
+
+    @Test
+    public void testSizeMismatch()
+    {
+        assertNull(RecipeMatcher.findMatches(Arrays.asList(0, 1), Collections.singletonList(ANY)));
+        assertNull(RecipeMatcher.findMatches(Collections.singletonList(0), Arrays.asList(ANY, ANY)));
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        assertArrayEquals(new int[0], RecipeMatcher.findMatches(Collections.<Integer>emptyList(), Collections.<Predicate<Integer>>emptyList()));
+    }
+
+    @Test
+    public void testUnmatchedTest()
+    {
+        assertNull(RecipeMatcher.findMatches(Arrays.asList(0, 1, 2), Arrays.asList(ANY, ANY, is(3))));
+    }
+
+    @Test
+    public void testUnmatchedInput()
+    {
+        assertNull(RecipeMatcher.findMatches(Arrays.asList(0, 1, 2), Arrays.asList(is(0), is(1), is(1))));
+    }
+
+    @Test
+    public void testDuplicateInputs()
+    {
+        List<Integer> inputs = Arrays.asList(1, 1, 2, 1);
+        List<Predicate<Integer>> tests = Arrays.asList(is(1), is(2), is(1), is(1));
+        assertValid(inputs, tests, RecipeMatcher.findMatches(inputs, tests));
+
+        assertNull(RecipeMatcher.findMatches(Arrays.asList(1, 1, 1), Arrays.asList(is(1), is(1), is(2))));
+    }
+
+    @Test
+    public void testDuplicateTests()
+    {
+        Predicate<Integer> odd = v -> (v & 1) != 0;
+        List<Integer> inputs = Arrays.asList(3, 5, 1);
+        List<Predicate<Integer>> tests = Arrays.asList(odd, odd, odd);
+        assertValid(inputs, tests, RecipeMatcher.findMatches(inputs, tests));
+    }
+
+    @Test
+    public void testAmbiguousWildcards()
+    {
+        // Greedily giving the only input the narrow test accepts to a wildcard would fail
+        List<Integer> inputs = Arrays.asList(0, 1, 2);
+        List<Predicate<Integer>> tests = Arrays.asList(ANY, ANY, is(0));
+        int[] ret = RecipeMatcher.findMatches(inputs, tests);
+        assertValid(inputs, tests, ret);
+        assertEquals(2, ret[0]);
+
+        assertNull(RecipeMatcher.findMatches(inputs, Arrays.asList(ANY, is(0), is(0))));
+    }
+
+    @Test
+    public void testManyWildcards()
+    {
+        // Exponential for a backtracking search which tries the wildcards first
+        List<Integer> inputs = new ArrayList<>();
+        List<Predicate<Integer>> tests = new ArrayList<>();
+        for (int i = 0; i < 64; i++)
+        {
+            inputs.add(i);
+            tests.add(i < 63 ? ANY : is(0));
+        }
+        assertValid(inputs, tests, RecipeMatcher.findMatches(inputs, tests));
+
+        tests.set(62, is(0));
+        assertNull(RecipeMatcher.findMatches(inputs, tests));
+    }
+
+    @Test
+    public void testRandomAgainstReference()
+    {
+        Random rand = new Random(1);
+        for (int i = 0; i < 200000; i++)
+        {
+            int size = 1 + rand.nextInt(7);
+            List<Integer> inputs = new ArrayList<>();
+            List<Predicate<Integer>> tests = new ArrayList<>();
+            for (int x = 0; x < size; x++)
+            {
+                inputs.add(rand.nextInt(4));
+                int mask = rand.nextInt(16);
+                tests.add(v -> ((mask >> v) & 1) != 0);
+            }
+
+            int[] ret = RecipeMatcher.findMatches(inputs, tests);
+            assertEquals(hasPerfectMatching(inputs, tests), ret != null, () -> "Wrong result for inputs " + inputs);
+            if (ret != null)
+                assertValid(inputs, tests, ret);
+        }
+    }
+
+    @Test
+    public void testItemStacks()
+    {
+        List<ItemStack> inputs = Arrays.asList(stack(Items.STICK, 1), stack(Items.OAK_PLANKS, 1), stack(Items.STICK, 1), stack(Items.COBBLESTONE, 1));
+        List<Ingredient> tests = Arrays.asList(Ingredient.of(Items.STICK), Ingredient.of(Items.COBBLESTONE, Items.OAK_PLANKS), Ingredient.of(Items.STICK), Ingredient.of(Items.OAK_PLANKS));
+        int[] ret = RecipeMatcher.findMatches(inputs, tests);
+        assertValid(inputs, tests, ret);
+        assertEquals(3, ret[1]);
+        assertEquals(1, ret[3]);
+
+        assertNull(RecipeMatcher.findMatches(inputs, Arrays.asList(Ingredient.of(Items.STICK), Ingredient.of(Items.OAK_PLANKS), Ingredient.of(Items.STICK), Ingredient.of(Items.OAK_PLANKS))));
+    }
+
+    @Test
+    public void testDuplicateVanillaIngredients()
+    {
+        // Separate but equal instances, grouped by their stacking ids
+        List<Ingredient> tests = Arrays.asList(Ingredient.of(Items.STICK), Ingredient.of(Items.STICK), Ingredient.of(Items.STICK));
+
+        List<ItemStack> inputs = Arrays.asList(stack(Items.STICK, 1), stack(Items.STICK, 1), stack(Items.STICK, 1));
+        assertValid(inputs, tests, RecipeMatcher.findMatches(inputs, tests));
+
+        // Stacks differing only in count are not grouped, but every one of them is still a stick
+        inputs = Arrays.asList(stack(Items.STICK, 1), stack(Items.STICK, 3), stack(Items.STICK, 64));
+        assertValid(inputs, tests, RecipeMatcher.findMatches(inputs, tests));
+
+        assertNull(RecipeMatcher.findMatches(Arrays.asList(stack(Items.STICK, 1), stack(Items.STICK, 1), stack(Items.OAK_PLANKS, 1)), tests));
+    }
+
+    @Test
+    public void testNonVanillaIngredientsNotMerged()
+    {
+        // Same stacking ids, but each only accepts its own tag
+        ItemStack a = named(Items.STICK, "a");
+        ItemStack b = named(Items.STICK, "b");
+        List<Ingredient> tests = Arrays.asList(nbt(b), nbt(a));
+        List<ItemStack> inputs = Arrays.asList(a.copy(), b.copy());
+        int[] ret = RecipeMatcher.findMatches(inputs, tests);
+        assertValid(inputs, tests, ret);
+        assertEquals(1, ret[0]);
+        assertEquals(0, ret[1]);
+
+        assertNull(RecipeMatcher.findMatches(Arrays.asList(a.copy(), a.copy()), tests));
+
+        // The vanilla ingredient takes either stick, so the tagged one has to be left to the NBT ingredient
+        tests = Arrays.asList(Ingredient.of(Items.STICK), nbt(a));
+        inputs = Arrays.asList(a.copy(), stack(Items.STICK, 1));
+        ret = RecipeMatcher.findMatches(inputs, tests);
+        assertValid(inputs, tests, ret);
+        assertEquals(1, ret[0]);
+    }
+
+    private static <T> void assertValid(List<T> inputs, List<? extends Predicate<T>> tests, int[] ret)
+    {
+        assertNotNull(ret);
+        assertEquals(inputs.size(), ret.length);
+        boolean[] used = new boolean[tests.size()];
+        for (int x = 0; x < ret.length; x++)
+        {
+            assertFalse(used[ret[x]], "Test " + ret[x] + " used twice");
+            used[ret[x]] = true;
+            assertTrue(tests.get(ret[x]).test(inputs.get(x)), "Test " + ret[x] + " does not accept input " + x);
+        }
+    }
+
+    // Plain augmenting path search, slow but obviously correct for the small cases above
+    private static boolean hasPerfectMatching(List<Integer> inputs, List<Predicate<Integer>> tests)
+    {
+        int[] owner = new int[inputs.size()];
+        Arrays.fill(owner, -1);
+        for (int test = 0; test < tests.size(); test++)
+            if (!augment(inputs, tests, test, owner, new boolean[inputs.size()]))
+                return false;
+        return true;
+    }
+
+    private static boolean augment(List<Integer> inputs, List<Predicate<Integer>> tests, int test, int[] owner, boolean[] seen)
+    {
+        for (int x = 0; x < inputs.size(); x++)
+        {
+            if (seen[x] || !tests.get(test).test(inputs.get(x)))
+                continue;
+            seen[x] = true;
+            if (owner[x] == -1 || augment(inputs, tests, owner[x], owner, seen))
+            {
+                owner[x] = test;
+                return true;
+            }
+        }
+        return false;
+    }
+}